@@ -5,6 +5,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
@@ -12,6 +14,8 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
 @SpringBootApplication
+@EnableAsync
+@EnableScheduling
 public class TournamentApplication {
 
 	public static void main(String[] args) {
@@ -28,7 +32,7 @@ public class TournamentApplication {
 				String method = request.getMethod();
 				response.setHeader("Access-Control-Allow-Origin", "*");
 				response.setHeader("Access-Control-Allow-Methods",
-						"POST,GET,PUT,DELETE");
+						"POST,GET,PUT,PATCH,DELETE");
 				response.setHeader("Access-Control-Max-Age", Long.toString(60 * 60));
 				response.setHeader("Access-Control-Allow-Credentials", "true");
 				response.setHeader(
@@ -3,11 +3,15 @@ package com.hairlesscat.app.algorithm;
 import com.hairlesscat.app.match.Match;
 import com.hairlesscat.app.princeton.Graph;
 import com.hairlesscat.app.princeton.HopcroftKarp;
+import com.hairlesscat.app.princeton.StdRandom;
 import com.hairlesscat.app.team.Team;
 import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.apache.commons.math3.util.CombinatoricsUtils.binomialCoefficient;
 
@@ -26,12 +30,213 @@ public class Algorithm {
      * @throws MoreMatchesThanAvailableTimeslotsException if number of matches required exceeds the number of timeslots provided.
      */
     public static List<Match> genRRMatches(List<TournamentTimeslot> tournamentTimeslots, List<Team> teams) throws ImperfectMatchingException, MoreMatchesThanAvailableTimeslotsException {
-        int numTeams = teams.size();
-        int numTimeslots = tournamentTimeslots.size();
+        AvailabilityMatrix matrix = AvailabilityMatrix.fromTimeslots(tournamentTimeslots, teams);
+        RoundRobinSolution solution = solveRR(matrix, null);
+        return toMatches(matrix, solution, teams);
+    }
+
+    /**
+     * Runs the Hopcroft-Karp matching of team pairings against timeslots on an availability matrix.
+     * Unlike {@link #genRRMatches(List, List)}, an imperfect matching is not an error here: pairings that
+     * could not be scheduled are reported as {@link RoundRobinSolution#UNSCHEDULED}.
+     *
+     * @param matrix the availability matrix.
+     * @param seed seed used to shuffle the pairing and timeslot orderings, or {@code null} to keep them in order.
+     * @return the maximum matching of pairings to timeslots.
+     * @throws MoreMatchesThanAvailableTimeslotsException if number of matches required exceeds the number of timeslots provided.
+     */
+    public static RoundRobinSolution solveRR(AvailabilityMatrix matrix, Long seed) throws MoreMatchesThanAvailableTimeslotsException {
+        return solveRR(matrix, seed, 1);
+    }
+
+    /**
+     * Same as {@link #solveRR(AvailabilityMatrix, Long)} for matches lasting {@code slotsPerMatch} consecutive timeslots.
+     *
+     * @param matrix the availability matrix.
+     * @param seed seed used to shuffle the pairing and timeslot orderings, or {@code null} to keep them in order.
+     * @param slotsPerMatch number of consecutive timeslots a match occupies.
+     * @return the maximum matching of pairings to blocks of timeslots.
+     * @throws MoreMatchesThanAvailableTimeslotsException if number of matches required exceeds the number of blocks of timeslots provided.
+     */
+    public static RoundRobinSolution solveRR(AvailabilityMatrix matrix, Long seed, int slotsPerMatch) throws MoreMatchesThanAvailableTimeslotsException {
+        int numTeams = matrix.numTeams();
+        int numBlocks = matrix.numTimeslots() / slotsPerMatch;
         int totalNumPairings = (int) (binomialCoefficient(numTeams, 2));
 
-        if (totalNumPairings > numTimeslots) {
-            throw new MoreMatchesThanAvailableTimeslotsException(totalNumPairings, numTimeslots);
+        if (totalNumPairings > numBlocks) {
+            throw new MoreMatchesThanAvailableTimeslotsException(totalNumPairings, numBlocks);
+        }
+
+        return matchPairingsToTimeslots(matrix, seed, slotsPerMatch);
+    }
+
+    /**
+     * Same as {@link #solveRR(AvailabilityMatrix, Long)} but without the up front timeslot count check, so that the
+     * size of the maximum matching can be reported even when there are fewer timeslots than pairings.
+     *
+     * @param matrix the availability matrix.
+     * @param seed seed used to shuffle the pairing and timeslot orderings, or {@code null} to keep them in order.
+     * @return the maximum matching of pairings to timeslots.
+     */
+    public static RoundRobinSolution matchPairingsToTimeslots(AvailabilityMatrix matrix, Long seed) {
+        return matchPairingsToTimeslots(matrix, seed, 1);
+    }
+
+    /**
+     * Matches pairings to runs of {@code slotsPerMatch} consecutive timeslots in which both teams are available.
+     * <p>
+     * The valid start slots of every team are precomputed by AND-ing its availability bitset with itself shifted by
+     * 1 .. {@code slotsPerMatch - 1} slots (and with the bitset of slots directly followed by the next one, so that a
+     * match never spans a gap). Overlapping runs cannot be expressed as a bipartite matching, so the timeslots are first
+     * cut into disjoint blocks of {@code slotsPerMatch} slots and each block is a vertex, which keeps the problem a
+     * Hopcroft-Karp matching. Every alignment of the blocks is tried and the largest matching is kept.
+     * <p>
+     * A single alignment misses the inputs where pairings can only play at starts of different alignments, e.g.
+     * slots 0-2 for one pairing and 4-6 for another with 3 slots per match. If no alignment schedules every pairing,
+     * the pairings are matched to the start slots both of their teams can play from, and {@link StartSlotAssignment}
+     * moves the matched starts that overlap, only blocking the slots a chosen start covers.
+     *
+     * @param matrix the availability matrix.
+     * @param seed seed used to shuffle the pairing and timeslot orderings, or {@code null} to keep them in order.
+     * @param slotsPerMatch number of consecutive timeslots a match occupies.
+     * @return the maximum matching of pairings to blocks of timeslots, identified by their first timeslot.
+     */
+    public static RoundRobinSolution matchPairingsToTimeslots(AvailabilityMatrix matrix, Long seed, int slotsPerMatch) {
+        if (slotsPerMatch < 1) {
+            throw new IllegalArgumentException("A match must occupy at least one timeslot.");
+        }
+        int numTeams = matrix.numTeams();
+        int numTimeslots = matrix.numTimeslots();
+
+        BitSet[] validStarts = new BitSet[numTeams];
+        if (slotsPerMatch == 1) {
+            for (int i = 0; i < numTeams; i++) {
+                validStarts[i] = matrix.availability(i);
+            }
+        } else {
+            BitSet contiguousRuns = windowedAnd(contiguousSlots(matrix), slotsPerMatch - 1);
+            for (int i = 0; i < numTeams; i++) {
+                validStarts[i] = windowedAnd(matrix.availability(i), slotsPerMatch);
+                validStarts[i].and(contiguousRuns);
+            }
+        }
+
+        RoundRobinSolution best = null;
+        for (int offset = 0; offset < slotsPerMatch; offset++) {
+            int numBlocks = (numTimeslots - offset) / slotsPerMatch;
+            if (numBlocks <= 0 && best != null) break;
+
+            // Block b starts at timeslot offset + b * slotsPerMatch
+            BitSet[] blockAvailabilities = new BitSet[numTeams];
+            for (int i = 0; i < numTeams; i++) {
+                if (slotsPerMatch == 1) {
+                    blockAvailabilities[i] = validStarts[i];
+                } else {
+                    blockAvailabilities[i] = new BitSet(numBlocks);
+                    for (int b = 0; b < numBlocks; b++) {
+                        if (validStarts[i].get(offset + b * slotsPerMatch)) blockAvailabilities[i].set(b);
+                    }
+                }
+            }
+
+            int[] pairingBlocks = matchPairingsToSlots(blockAvailabilities, Math.max(numBlocks, 0), seed);
+            for (int pairing = 0; pairing < pairingBlocks.length; pairing++) {
+                if (pairingBlocks[pairing] != RoundRobinSolution.UNSCHEDULED) {
+                    pairingBlocks[pairing] = offset + pairingBlocks[pairing] * slotsPerMatch;
+                }
+            }
+
+            RoundRobinSolution solution = new RoundRobinSolution(numTeams, pairingBlocks, slotsPerMatch);
+            if (best == null || solution.matchingSize() > best.matchingSize()) {
+                best = solution;
+            }
+            if (best.isPerfect()) break;
+        }
+
+        if (slotsPerMatch > 1 && !best.isPerfect()) {
+            BitSet[] pairingStarts = new BitSet[best.numPairings()];
+            int pairing = 0;
+            for (int i = 0; i < numTeams; i++) {
+                for (int j = i + 1; j < numTeams; j++) {
+                    pairingStarts[pairing] = (BitSet) validStarts[i].clone();
+                    pairingStarts[pairing].and(validStarts[j]);
+                    pairing++;
+                }
+            }
+            // Every start slot is a vertex of the matching, a match then only blocks the slots it covers
+            int[] matchedStarts = matchPairingsToSlots(validStarts, numTimeslots, seed);
+            RoundRobinSolution assigned = new RoundRobinSolution(numTeams, new StartSlotAssignment(pairingStarts, slotsPerMatch).run(matchedStarts), slotsPerMatch);
+            if (assigned.matchingSize() > best.matchingSize()) {
+                best = assigned;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return bitset with bit {@code k} set if bits {@code k .. k + width - 1} are all set in {@code bits}.
+     */
+    private static BitSet windowedAnd(BitSet bits, int width) {
+        BitSet window = (BitSet) bits.clone();
+        for (int shift = 1; shift < width && !window.isEmpty(); shift++) {
+            // get(shift, length) is the bitset shifted down by shift positions
+            window.and(bits.get(shift, Math.max(shift, bits.length())));
+        }
+        return window;
+    }
+
+    /**
+     * @return bitset with bit {@code k} set if timeslot {@code k + 1} starts exactly when timeslot {@code k} ends.
+     */
+    private static BitSet contiguousSlots(AvailabilityMatrix matrix) {
+        BitSet contiguous = new BitSet(matrix.numTimeslots());
+        for (int k = 0; k + 1 < matrix.numTimeslots(); k++) {
+            if (matrix.slotEndTime(k).equals(matrix.slotStartTime(k + 1))) contiguous.set(k);
+        }
+        return contiguous;
+    }
+
+    /**
+     * Hopcroft-Karp processes the pairings in vertex order and always takes the first timeslot of an adjacency list,
+     * which piles the matches up in the same timeslots. When a seed is given, the pairing vertices and the timeslot
+     * vertices are numbered following a random permutation instead, which spreads the matches over the tournament
+     * while keeping the result reproducible for the same seed.
+     *
+     * @param teamAvailabilities availability bitset of every team over the {@code numTimeslots} slots.
+     * @return the slot assigned to every pairing, or {@link RoundRobinSolution#UNSCHEDULED}.
+     */
+    private static int[] matchPairingsToSlots(BitSet[] teamAvailabilities, int numTimeslots, Long seed) {
+        int numTeams = teamAvailabilities.length;
+        int totalNumPairings = (int) (binomialCoefficient(numTeams, 2));
+
+        // pairingVertex[p] is the vertex of pairing p, slotPosition[k] the position of timeslot k on the right side
+        int[] pairingVertex = identity(totalNumPairings);
+        int[] slotPosition = identity(numTimeslots);
+        if (seed != null) {
+            // StdRandom is a global generator, so seeding and drawing must not interleave with other threads
+            synchronized (StdRandom.class) {
+                StdRandom.setSeed(seed);
+                pairingVertex = StdRandom.permutation(totalNumPairings);
+                slotPosition = StdRandom.permutation(numTimeslots);
+            }
+        }
+        int[] slotAtPosition = new int[numTimeslots];
+        for (int k = 0; k < numTimeslots; k++) {
+            slotAtPosition[slotPosition[k]] = k;
+        }
+
+        // Relabel the availabilities once so that the common timeslots of a pairing come out in shuffled order
+        BitSet[] availabilities = new BitSet[numTeams];
+        for (int i = 0; i < numTeams; i++) {
+            BitSet availability = teamAvailabilities[i];
+            if (seed == null) {
+                availabilities[i] = availability;
+            } else {
+                availabilities[i] = new BitSet(numTimeslots);
+                for (int k = availability.nextSetBit(0); k >= 0 && k < numTimeslots; k = availability.nextSetBit(k + 1)) {
+                    availabilities[i].set(slotPosition[k]);
+                }
+            }
         }
 
         int V = totalNumPairings + numTimeslots;
@@ -44,15 +249,12 @@ public class Algorithm {
         // Double for loop to get all n choose 2 team pairings
         for (int i = 0; i < numTeams; i++) {
             for (int j = i+1; j < numTeams; j++) {
-                Team t1 = teams.get(i);
-                Team t2 = teams.get(j);
-                for (int k = 0; k < numTimeslots; k++) {
-                    TournamentTimeslot timeslot = tournamentTimeslots.get(k);
-                    // if both teams have agreed to play at this time, then there should be an edge in the bp graph
-                    if (timeslot.hasTeam(t1) && timeslot.hasTeam(t2)) {
-                        // we add totalNumPairings to k because each timeslot is represented by these vertices indexed starting from totalNumPairings
-                        graph.addEdge(pairingsCounter, k + totalNumPairings);
-                    }
+                // if both teams have agreed to play at this time, then there should be an edge in the bp graph
+                BitSet commonTimeslots = (BitSet) availabilities[i].clone();
+                commonTimeslots.and(availabilities[j]);
+                for (int position = commonTimeslots.nextSetBit(0); position >= 0 && position < numTimeslots; position = commonTimeslots.nextSetBit(position + 1)) {
+                    // we add totalNumPairings to the position because each timeslot is represented by these vertices indexed starting from totalNumPairings
+                    graph.addEdge(pairingVertex[pairingsCounter], position + totalNumPairings);
                 }
                 pairingsCounter++;
             }
@@ -64,28 +266,65 @@ public class Algorithm {
         // Hopcroft-Karp Algo
         HopcroftKarp hopcroftKarp = new HopcroftKarp(graph);
 
+        int[] pairingTimeslots = new int[totalNumPairings];
+        for (int pairing = 0; pairing < totalNumPairings; pairing++) {
+            int matchedTimeslotVertex = hopcroftKarp.mate(pairingVertex[pairing]);
+            // Must use matchedTimeslotVertex - totalNumPairings because the index returned
+            // from the hopcroftKarp algo is includes the team pairings in the count
+            pairingTimeslots[pairing] = matchedTimeslotVertex == -1
+                    ? RoundRobinSolution.UNSCHEDULED
+                    : slotAtPosition[matchedTimeslotVertex - totalNumPairings];
+        }
+
+        return pairingTimeslots;
+    }
+
+    private static int[] identity(int n) {
+        int[] identity = new int[n];
+        for (int i = 0; i < n; i++) {
+            identity[i] = i;
+        }
+        return identity;
+    }
+
+    /**
+     * Creates the matches of a perfect round robin solution.
+     *
+     * @param matrix the availability matrix the solution was computed on.
+     * @param solution the solution.
+     * @param teams the teams of the matrix.
+     * @return a list of matches, one per pairing.
+     * @throws ImperfectMatchingException if one or more pairings were not scheduled a timeslot.
+     */
+    public static List<Match> toMatches(AvailabilityMatrix matrix, RoundRobinSolution solution, List<Team> teams) throws ImperfectMatchingException {
+        if (!solution.isPerfect()) {
+            throw new ImperfectMatchingException("One or more matches are not scheduled a timeslot.");
+        }
+
+        Map<Long, Team> teamsById = new HashMap<>();
+        for (Team team : teams) {
+            teamsById.put(team.getTeamId(), team);
+        }
+
         // Create matches based on the matching
-        pairingsCounter = 0;
+        int pairingsCounter = 0;
         List<Match> matches = new ArrayList<>();
+        int numTeams = matrix.numTeams();
 
         for (int i = 0; i < numTeams; i++) {
             for (int j = i+1; j < numTeams; j++) {
-                int matchedTimeslotIndex = hopcroftKarp.mate(pairingsCounter);
-                if (matchedTimeslotIndex == -1) {
-                    throw new ImperfectMatchingException("One or more matches are not scheduled a timeslot.");
-                }
-
-                // Must use matchedTimeslotIndex - totalNumPairings because the index returned
-                // from the hopcroftKarp algo is includes the team pairings in the count
-                TournamentTimeslot matchedTimeslot = tournamentTimeslots.get(matchedTimeslotIndex - totalNumPairings);
-                Match match = new Match(List.of(teams.get(i), teams.get(j)), matchedTimeslot.getStartTime(), matchedTimeslot.getEndTime());
+                int matchedTimeslotIndex = solution.timeslotOf(pairingsCounter);
+                int lastTimeslotIndex = solution.lastTimeslotOf(pairingsCounter);
+                Team t1 = teamsById.get(matrix.teamId(i));
+                Team t2 = teamsById.get(matrix.teamId(j));
+                Match match = new Match(List.of(t1, t2), matrix.slotStartTime(matchedTimeslotIndex), matrix.slotEndTime(lastTimeslotIndex));
                 matches.add(match);
                 pairingsCounter++;
             }
         }
 
         // Ensure that we didn't mess up our counting
-        assert pairingsCounter == totalNumPairings;
+        assert pairingsCounter == solution.numPairings();
 
         return matches;
     }
@@ -0,0 +1,143 @@
+package com.hairlesscat.app.algorithm;
+
+import com.hairlesscat.app.team.Team;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Plain, entity free snapshot of the scheduling inputs: the sorted team ids, the ordered list of
+ * timeslots and one availability bitset per team (bit {@code k} is set if the team can play in slot {@code k}).
+ * <p>
+ * Being detached from JPA, a matrix can be solved on any thread and can be identified by its {@link #fingerprint()}.
+ */
+public class AvailabilityMatrix {
+    private final long[] teamIds;
+    private final LocalDateTime[] slotStartTimes;
+    private final LocalDateTime[] slotEndTimes;
+    private final BitSet[] teamAvailabilities;
+    private String fingerprint;
+
+    /**
+     * @param teamIds ids of the teams, must be sorted in ascending order.
+     * @param slotStartTimes start time of every timeslot.
+     * @param slotEndTimes end time of every timeslot.
+     * @param teamAvailabilities availability bitset of every team, indexed like {@code teamIds}.
+     */
+    public AvailabilityMatrix(long[] teamIds, LocalDateTime[] slotStartTimes, LocalDateTime[] slotEndTimes, BitSet[] teamAvailabilities) {
+        if (teamIds.length != teamAvailabilities.length || slotStartTimes.length != slotEndTimes.length) {
+            throw new IllegalArgumentException("Availability matrix dimensions do not match.");
+        }
+        this.teamIds = teamIds;
+        this.slotStartTimes = slotStartTimes;
+        this.slotEndTimes = slotEndTimes;
+        this.teamAvailabilities = teamAvailabilities;
+    }
+
+    /**
+     * Builds the matrix from persisted tournament timeslots. Teams are ordered by id so that the same inputs
+     * always produce the same matrix, regardless of the iteration order of the given collection.
+     *
+     * @param tournamentTimeslots list of timeslots, in the order they should be indexed.
+     * @param teams teams taking part in the schedule.
+     * @return the availability matrix.
+     */
+    public static AvailabilityMatrix fromTimeslots(List<TournamentTimeslot> tournamentTimeslots, Collection<Team> teams) {
+        long[] teamIds = teams.stream().mapToLong(Team::getTeamId).sorted().toArray();
+        Map<Long, Integer> teamIndices = new HashMap<>();
+        for (int i = 0; i < teamIds.length; i++) {
+            teamIndices.put(teamIds[i], i);
+        }
+
+        int numTimeslots = tournamentTimeslots.size();
+        LocalDateTime[] startTimes = new LocalDateTime[numTimeslots];
+        LocalDateTime[] endTimes = new LocalDateTime[numTimeslots];
+        BitSet[] availabilities = new BitSet[teamIds.length];
+        for (int i = 0; i < availabilities.length; i++) {
+            availabilities[i] = new BitSet(numTimeslots);
+        }
+
+        for (int k = 0; k < numTimeslots; k++) {
+            TournamentTimeslot timeslot = tournamentTimeslots.get(k);
+            startTimes[k] = timeslot.getStartTime();
+            endTimes[k] = timeslot.getEndTime();
+            for (Team team : timeslot.getAvailableTeams()) {
+                Integer teamIndex = teamIndices.get(team.getTeamId());
+                if (teamIndex != null) {
+                    availabilities[teamIndex].set(k);
+                }
+            }
+        }
+
+        return new AvailabilityMatrix(teamIds, startTimes, endTimes, availabilities);
+    }
+
+    public int numTeams() {
+        return teamIds.length;
+    }
+
+    public int numTimeslots() {
+        return slotStartTimes.length;
+    }
+
+    public long teamId(int teamIndex) {
+        return teamIds[teamIndex];
+    }
+
+    public LocalDateTime slotStartTime(int slotIndex) {
+        return slotStartTimes[slotIndex];
+    }
+
+    public LocalDateTime slotEndTime(int slotIndex) {
+        return slotEndTimes[slotIndex];
+    }
+
+    /**
+     * @return the availability bitset of the team at {@code teamIndex}. The returned bitset must not be modified.
+     */
+    public BitSet availability(int teamIndex) {
+        return teamAvailabilities[teamIndex];
+    }
+
+    /**
+     * Computes a stable hash over the sorted team ids, the timeslot list and the availability bitsets.
+     * Two matrices with the same fingerprint produce the same schedule.
+     *
+     * @return hex encoded SHA-256 digest of the matrix.
+     */
+    public String fingerprint() {
+        if (fingerprint == null) {
+            MessageDigest digest = sha256();
+            StringBuilder sb = new StringBuilder();
+            sb.append("teams:");
+            for (long teamId : teamIds) {
+                sb.append(teamId).append(',');
+            }
+            sb.append(";slots:");
+            for (int k = 0; k < slotStartTimes.length; k++) {
+                sb.append(slotStartTimes[k]).append('/').append(slotEndTimes[k]).append(',');
+            }
+            sb.append(";availabilities:");
+            for (BitSet availability : teamAvailabilities) {
+                for (long word : availability.toLongArray()) {
+                    sb.append(Long.toHexString(word)).append('.');
+                }
+                sb.append(',');
+            }
+            fingerprint = HexFormat.of().formatHex(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        return fingerprint;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+}
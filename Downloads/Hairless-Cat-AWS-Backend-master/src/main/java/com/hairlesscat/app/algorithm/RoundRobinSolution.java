@@ -0,0 +1,97 @@
+package com.hairlesscat.app.algorithm;
+
+import java.util.*;
+
+/**
+ * Outcome of running the round robin matching on an {@link AvailabilityMatrix}.
+ * <p>
+ * Pairings are numbered in the order of the double for loop over the (sorted) teams,
+ * i.e. (0,1), (0,2), ..., (1,2), ... and each pairing is assigned a timeslot index or {@link #UNSCHEDULED}.
+ * When matches last several timeslots, the index is the first of the {@code slotsPerMatch} consecutive timeslots.
+ */
+public class RoundRobinSolution {
+    public static final int UNSCHEDULED = -1;
+
+    private final int numTeams;
+    private final int[] pairingTimeslots;
+    private final int slotsPerMatch;
+    private final int matchingSize;
+
+    public RoundRobinSolution(int numTeams, int[] pairingTimeslots) {
+        this(numTeams, pairingTimeslots, 1);
+    }
+
+    public RoundRobinSolution(int numTeams, int[] pairingTimeslots, int slotsPerMatch) {
+        this.numTeams = numTeams;
+        this.pairingTimeslots = pairingTimeslots;
+        this.slotsPerMatch = slotsPerMatch;
+        int size = 0;
+        for (int timeslotIndex : pairingTimeslots) {
+            if (timeslotIndex != UNSCHEDULED) size++;
+        }
+        this.matchingSize = size;
+    }
+
+    public int numPairings() {
+        return pairingTimeslots.length;
+    }
+
+    /**
+     * @return the timeslot index assigned to the pairing, or {@link #UNSCHEDULED}.
+     */
+    public int timeslotOf(int pairing) {
+        return pairingTimeslots[pairing];
+    }
+
+    /**
+     * @return the last timeslot index occupied by the pairing, or {@link #UNSCHEDULED}.
+     */
+    public int lastTimeslotOf(int pairing) {
+        int first = pairingTimeslots[pairing];
+        return first == UNSCHEDULED ? UNSCHEDULED : first + slotsPerMatch - 1;
+    }
+
+    public int slotsPerMatch() {
+        return slotsPerMatch;
+    }
+
+    public int matchingSize() {
+        return matchingSize;
+    }
+
+    public boolean isPerfect() {
+        return matchingSize == pairingTimeslots.length;
+    }
+
+    /**
+     * Counts, for every team index, how many of its pairings could not be given a timeslot.
+     * Teams with a non zero count are the bottlenecks of the schedule.
+     *
+     * @return map of team index to number of unscheduled pairings, ordered by descending count.
+     */
+    public Map<Integer, Integer> unscheduledPairingsPerTeam() {
+        int[] counts = new int[numTeams];
+        int pairing = 0;
+        for (int i = 0; i < numTeams; i++) {
+            for (int j = i + 1; j < numTeams; j++) {
+                if (pairingTimeslots[pairing] == UNSCHEDULED) {
+                    counts[i]++;
+                    counts[j]++;
+                }
+                pairing++;
+            }
+        }
+
+        List<Integer> bottlenecks = new ArrayList<>();
+        for (int i = 0; i < numTeams; i++) {
+            if (counts[i] > 0) bottlenecks.add(i);
+        }
+        bottlenecks.sort(Comparator.comparingInt((Integer i) -> counts[i]).reversed());
+
+        Map<Integer, Integer> result = new LinkedHashMap<>();
+        for (Integer i : bottlenecks) {
+            result.put(i, counts[i]);
+        }
+        return result;
+    }
+}
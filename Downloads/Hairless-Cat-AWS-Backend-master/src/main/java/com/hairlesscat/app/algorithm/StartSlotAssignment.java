@@ -0,0 +1,139 @@
+package com.hairlesscat.app.algorithm;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Turns a matching of pairings to start slots into non overlapping matches that last several consecutive timeslots.
+ * Used by {@link Algorithm#matchPairingsToTimeslots(AvailabilityMatrix, Long, int)} when no alignment of the timeslots
+ * into blocks schedules every pairing.
+ * <p>
+ * The matching gives every pairing a distinct start slot, but two starts closer than the length of a match still
+ * overlap. A greedy pass then places the pairings, fewest start slots first, each at the free start nearest to its
+ * matched start, so the starts stay spread the way the (seeded) matching spread them. A pairing left without a free
+ * start is placed at a start blocked by a single match if that match can move to another of its free starts.
+ * <p>
+ * Finding non overlapping starts is NP-hard in general, so the assignment is not always the largest one, but it runs
+ * in O(pairings * start slots) per pairing after the matching instead of searching.
+ */
+class StartSlotAssignment {
+    private final BitSet[] pairingStarts;
+    private final int slotsPerMatch;
+    private final BitSet occupied = new BitSet();
+
+    /**
+     * @param pairingStarts slots every pairing can start a match at, indexed like the pairings of {@link RoundRobinSolution}.
+     * @param slotsPerMatch number of consecutive timeslots a match occupies.
+     */
+    StartSlotAssignment(BitSet[] pairingStarts, int slotsPerMatch) {
+        this.pairingStarts = pairingStarts;
+        this.slotsPerMatch = slotsPerMatch;
+    }
+
+    /**
+     * @param matchedStarts start slot matched to every pairing, or {@link RoundRobinSolution#UNSCHEDULED}. Distinct
+     *                      pairings have distinct starts.
+     * @return the start slot of every pairing, or {@link RoundRobinSolution#UNSCHEDULED}, without overlapping matches.
+     */
+    int[] run(int[] matchedStarts) {
+        int numPairings = pairingStarts.length;
+        int[] starts = new int[numPairings];
+        int[] numStarts = new int[numPairings];
+        List<Integer> order = new ArrayList<>(numPairings);
+        for (int pairing = 0; pairing < numPairings; pairing++) {
+            starts[pairing] = RoundRobinSolution.UNSCHEDULED;
+            numStarts[pairing] = pairingStarts[pairing].cardinality();
+            order.add(pairing);
+        }
+        // Most constrained pairing first, unmatched pairings after the matched ones with as many start slots
+        order.sort(Comparator.<Integer>comparingInt(pairing -> numStarts[pairing])
+                .thenComparingInt(pairing -> matchedStarts[pairing] == RoundRobinSolution.UNSCHEDULED ? 1 : 0));
+
+        List<Integer> unplaced = new ArrayList<>();
+        for (int pairing : order) {
+            int target = matchedStarts[pairing] == RoundRobinSolution.UNSCHEDULED ? 0 : matchedStarts[pairing];
+            int start = nearestFreeStart(pairing, target);
+            if (start == -1) {
+                unplaced.add(pairing);
+            } else {
+                place(starts, pairing, start);
+            }
+        }
+        for (int pairing : unplaced) {
+            placeByMovingOne(starts, pairing);
+        }
+        return starts;
+    }
+
+    /**
+     * Places the pairing at a start that is only blocked by a single match, if that match can move to another free
+     * start of its pairing.
+     */
+    private void placeByMovingOne(int[] starts, int pairing) {
+        BitSet candidates = pairingStarts[pairing];
+        for (int start = candidates.nextSetBit(0); start >= 0; start = candidates.nextSetBit(start + 1)) {
+            int blocking = blockingPairing(starts, start);
+            if (blocking == -1) continue;
+
+            int blockingStart = starts[blocking];
+            unplace(starts, blocking);
+            place(starts, pairing, start);
+            int moved = nearestFreeStart(blocking, blockingStart);
+            if (moved != -1) {
+                place(starts, blocking, moved);
+                return;
+            }
+            unplace(starts, pairing);
+            place(starts, blocking, blockingStart);
+        }
+    }
+
+    /**
+     * @return the pairing of the only match that overlaps a match at {@code start}, or -1 if none or several do.
+     */
+    private int blockingPairing(int[] starts, int start) {
+        int blocking = -1;
+        for (int pairing = 0; pairing < starts.length; pairing++) {
+            int other = starts[pairing];
+            if (other == RoundRobinSolution.UNSCHEDULED || other >= start + slotsPerMatch || other + slotsPerMatch <= start) continue;
+            if (blocking != -1) return -1;
+            blocking = pairing;
+        }
+        return blocking;
+    }
+
+    private void place(int[] starts, int pairing, int start) {
+        starts[pairing] = start;
+        occupied.set(start, start + slotsPerMatch);
+    }
+
+    private void unplace(int[] starts, int pairing) {
+        occupied.clear(starts[pairing], starts[pairing] + slotsPerMatch);
+        starts[pairing] = RoundRobinSolution.UNSCHEDULED;
+    }
+
+    /**
+     * @return the free start slot of the pairing closest to {@code target}, the later one on a tie, or -1.
+     */
+    private int nearestFreeStart(int pairing, int target) {
+        BitSet candidates = pairingStarts[pairing];
+        int after = candidates.nextSetBit(target);
+        while (after != -1 && !isFree(after)) {
+            after = candidates.nextSetBit(after + 1);
+        }
+        int before = target == 0 ? -1 : candidates.previousSetBit(target - 1);
+        while (before != -1 && !isFree(before)) {
+            before = before == 0 ? -1 : candidates.previousSetBit(before - 1);
+        }
+        if (after == -1) return before;
+        if (before == -1) return after;
+        return target - before < after - target ? before : after;
+    }
+
+    private boolean isFree(int start) {
+        int nextOccupied = occupied.nextSetBit(start);
+        return nextOccupied == -1 || nextOccupied >= start + slotsPerMatch;
+    }
+}
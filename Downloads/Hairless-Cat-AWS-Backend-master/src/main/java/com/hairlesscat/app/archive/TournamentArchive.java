@@ -0,0 +1,56 @@
+package com.hairlesscat.app.archive;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot of a completed tournament, taken by {@link TournamentArchiver} before its rows are removed from the hot
+ * tables. The snapshots hold the JSON the tournament, match and result endpoints returned for the tournament, so they
+ * are served as is.
+ */
+@Entity
+@Table(name = "tournament_archive")
+@Data
+@NoArgsConstructor
+public class TournamentArchive {
+
+    @Id
+    @Column(name = "tournament_id", updatable = false)
+    private Long tournamentId;
+
+    @Column(name = "tournament_admin_user_id", columnDefinition = "TEXT")
+    private String adminUserId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Views.TournamentSummary
+    @Column(name = "tournament_summary", nullable = false, columnDefinition = "TEXT")
+    private String tournamentSummary;
+
+    // Views.TournamentFull
+    @Column(name = "tournament_full", nullable = false, columnDefinition = "TEXT")
+    private String tournamentFull;
+
+    // Views.TournamentTimeslot
+    @Column(name = "timeslots", nullable = false, columnDefinition = "TEXT")
+    private String timeslots;
+
+    // Views.MatchFull
+    @Column(name = "matches", nullable = false, columnDefinition = "TEXT")
+    private String matches;
+
+    // Views.ResultFull
+    @Column(name = "results", nullable = false, columnDefinition = "TEXT")
+    private String results;
+
+    // Finds the archive of a match or result, the rows are removed with the archive by the foreign key
+    @ElementCollection
+    @CollectionTable(name = "tournament_archive_match", joinColumns = @JoinColumn(name = "tournament_id"))
+    private List<TournamentArchiveMatch> matchIds = new ArrayList<>();
+}
@@ -0,0 +1,23 @@
+package com.hairlesscat.app.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+/**
+ * Id of an archived match and of its result, if any.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentArchiveMatch {
+    @Column(name = "match_id", nullable = false)
+    private Long matchId;
+
+    @Column(name = "result_id")
+    private Long resultId;
+}
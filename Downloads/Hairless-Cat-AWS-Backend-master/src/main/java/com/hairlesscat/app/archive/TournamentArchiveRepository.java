@@ -0,0 +1,36 @@
+package com.hairlesscat.app.archive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TournamentArchiveRepository extends JpaRepository<TournamentArchive, Long> {
+
+	@Query("SELECT a FROM TournamentArchive a WHERE a.tournamentId > ?1 ORDER BY a.tournamentId")
+	List<TournamentArchive> findPage(Long cursor, Pageable limit);
+
+	@Query("SELECT a FROM TournamentArchive a WHERE a.adminUserId = ?1 AND a.tournamentId > ?2 ORDER BY a.tournamentId")
+	List<TournamentArchive> findPageByAdminUser(String userId, Long cursor, Pageable limit);
+
+	// The status is stored as the ordinal of Status in a TEXT column
+	@Query(value = "SELECT tournament_id FROM tournament WHERE status = ?1 AND NOT deleted ORDER BY tournament_id LIMIT ?2", nativeQuery = true)
+	List<Long> findUnarchivedTournamentIdsWithStatus(String status, int limit);
+
+	@Query("SELECT a FROM TournamentArchive a JOIN a.matchIds m WHERE m.matchId = ?1")
+	Optional<TournamentArchive> findByMatchId(Long matchId);
+
+	@Query("SELECT a FROM TournamentArchive a JOIN a.matchIds m WHERE m.resultId = ?1")
+	Optional<TournamentArchive> findByResultId(Long resultId);
+
+	@Modifying
+	@Transactional
+	@Query("DELETE FROM TournamentArchive a WHERE a.tournamentId = ?1")
+	int deleteByTournamentId(Long tournamentId);
+}
@@ -0,0 +1,161 @@
+package com.hairlesscat.app.archive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hairlesscat.app.match.Match;
+import com.hairlesscat.app.result.Result;
+import com.hairlesscat.app.tournament.Tournament;
+import com.hairlesscat.app.tournament.TournamentService;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslotService;
+import com.hairlesscat.app.util.KeysetPage;
+import com.hairlesscat.app.util.Status;
+import com.hairlesscat.app.view.Views;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Moves completed tournaments out of the hot tables into {@link TournamentArchive} snapshots, and reads the snapshots
+ * back for the tournament, match and result endpoints once the tournament is no longer found in the hot tables.
+ */
+@Service
+public class TournamentArchiveService {
+
+    private final TournamentArchiveRepository tournamentArchiveRepository;
+    private final TournamentService tournamentService;
+    private final TournamentTimeslotService tournamentTimeslotService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TournamentArchiveService(TournamentArchiveRepository tournamentArchiveRepository, TournamentService tournamentService, TournamentTimeslotService tournamentTimeslotService, ObjectMapper objectMapper) {
+        this.tournamentArchiveRepository = tournamentArchiveRepository;
+        this.tournamentService = tournamentService;
+        this.tournamentTimeslotService = tournamentTimeslotService;
+        this.objectMapper = objectMapper;
+    }
+
+    public List<Long> getUnarchivedCompletedTournamentIds(int limit) {
+        return tournamentArchiveRepository.findUnarchivedTournamentIdsWithStatus(String.valueOf(Status.COMPLETED.ordinal()), limit);
+    }
+
+    /**
+     * Stores the snapshot of the tournament and marks it as deleted in the same transaction, its rows are then removed
+     * from the hot tables by {@code TournamentReaper}.
+     *
+     * @return {@code false} if the tournament was not found, or is not completed.
+     */
+    @Transactional
+    public boolean archiveTournament(Long tournamentId) {
+        Optional<Tournament> found = tournamentService.getTournamentForFullView(tournamentId);
+        if (found.isEmpty() || found.get().getStatus() != Status.COMPLETED) {
+            return false;
+        }
+        Tournament tournament = found.get();
+
+        TournamentArchive archive = new TournamentArchive();
+        archive.setTournamentId(tournamentId);
+        archive.setAdminUserId(tournament.getAdminUser() == null ? null : tournament.getAdminUser().getUserId());
+        archive.setArchivedAt(LocalDateTime.now());
+        archive.setTournamentSummary(write(tournament, Views.TournamentSummary.class));
+        archive.setTournamentFull(write(tournament, Views.TournamentFull.class));
+        List<TournamentTimeslot> timeslots = tournament.getSchedule() == null ? List.of() : tournamentTimeslotService.getAllTimeslots(tournament.getSchedule());
+        archive.setTimeslots(write(timeslots, Views.TournamentTimeslot.class));
+        List<Match> matches = tournament.getMatches() == null ? List.of() : tournament.getMatches();
+        List<Result> results = new ArrayList<>();
+        for (Match match : matches) {
+            Result result = match.getResult();
+            if (result != null) results.add(result);
+            archive.getMatchIds().add(new TournamentArchiveMatch(match.getMatchId(), result == null ? null : result.getResultId()));
+        }
+        archive.setMatches(write(matches, Views.MatchFull.class));
+        archive.setResults(write(results, Views.ResultFull.class));
+        tournamentArchiveRepository.save(archive);
+
+        return tournamentService.deleteTournament(tournamentId);
+    }
+
+    public Optional<JsonNode> getArchivedTournament(Long tournamentId) {
+        return tournamentArchiveRepository.findById(tournamentId).map(archive -> read(archive.getTournamentFull()));
+    }
+
+    public Optional<JsonNode> getArchivedTimeslots(Long tournamentId) {
+        return tournamentArchiveRepository.findById(tournamentId).map(archive -> read(archive.getTimeslots()));
+    }
+
+    public Optional<JsonNode> getArchivedMatches(Long tournamentId) {
+        return tournamentArchiveRepository.findById(tournamentId).map(archive -> read(archive.getMatches()));
+    }
+
+    public Optional<JsonNode> getArchivedMatch(Long matchId) {
+        return tournamentArchiveRepository.findByMatchId(matchId)
+                .flatMap(archive -> find(read(archive.getMatches()), "match_id", matchId));
+    }
+
+    public Optional<JsonNode> getArchivedResult(Long resultId) {
+        return tournamentArchiveRepository.findByResultId(resultId)
+                .flatMap(archive -> find(read(archive.getResults()), "result_id", resultId));
+    }
+
+    public Optional<JsonNode> getArchivedResultOfMatch(Long matchId) {
+        return tournamentArchiveRepository.findByMatchId(matchId)
+                .flatMap(archive -> find(read(archive.getResults()), "result_match", matchId));
+    }
+
+    /**
+     * @param userId if not {@code null}, only the tournaments of this admin user are returned.
+     * @return the summaries of the first {@code size} + 1 archived tournaments with an id greater than {@code cursor},
+     * see {@link KeysetPage}.
+     */
+    public List<JsonNode> getArchivedTournaments(String userId, long cursor, int size) {
+        Pageable limit = KeysetPage.limit(size);
+        List<TournamentArchive> archives = userId == null
+                ? tournamentArchiveRepository.findPage(cursor, limit)
+                : tournamentArchiveRepository.findPageByAdminUser(userId, cursor, limit);
+        List<JsonNode> summaries = new ArrayList<>(archives.size());
+        archives.forEach(archive -> summaries.add(read(archive.getTournamentSummary())));
+        return summaries;
+    }
+
+    public boolean deleteArchivedTournament(Long tournamentId) {
+        return tournamentArchiveRepository.deleteByTournamentId(tournamentId) == 1;
+    }
+
+    private String write(Object value, Class<?> view) {
+        try {
+            return objectMapper.writerWithView(view).writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write the archive snapshot.", e);
+        }
+    }
+
+    /**
+     * @return the element of the {@code snapshot} array whose {@code field} is {@code id}, or whose {@code field}
+     * object has the id, as the {@code result_match} of a result.
+     */
+    private static Optional<JsonNode> find(JsonNode snapshot, String field, Long id) {
+        for (JsonNode element : snapshot) {
+            JsonNode value = element.path(field);
+            if (value.isObject()) value = value.path("match_id");
+            if (value.canConvertToLong() && value.asLong() == id) {
+                return Optional.of(element);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private JsonNode read(String snapshot) {
+        try {
+            return objectMapper.readTree(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read the archive snapshot.", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hairlesscat.app.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Archives the completed tournaments on a schedule, so that the hot tables only hold the tournaments still in use.
+ */
+@Component
+public class TournamentArchiver {
+    private static final Logger log = LoggerFactory.getLogger(TournamentArchiver.class);
+    private static final int TOURNAMENTS_PER_RUN = 50;
+
+    private final TournamentArchiveService tournamentArchiveService;
+
+    @Autowired
+    public TournamentArchiver(TournamentArchiveService tournamentArchiveService) {
+        this.tournamentArchiveService = tournamentArchiveService;
+    }
+
+    @Scheduled(initialDelayString = "${tournament.archiver.delay:PT1H}", fixedDelayString = "${tournament.archiver.delay:PT1H}")
+    public void archiveCompletedTournaments() {
+        for (Long tournamentId : tournamentArchiveService.getUnarchivedCompletedTournamentIds(TOURNAMENTS_PER_RUN)) {
+            try {
+                tournamentArchiveService.archiveTournament(tournamentId);
+            } catch (RuntimeException e) {
+                // Nothing is archived or deleted, the tournament is retried on the next run
+                log.warn("Failed to archive tournament {}", tournamentId, e);
+            }
+        }
+    }
+}
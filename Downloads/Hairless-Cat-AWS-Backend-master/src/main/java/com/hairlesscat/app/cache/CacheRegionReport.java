@@ -0,0 +1,31 @@
+package com.hairlesscat.app.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Hit and miss counts of a second-level cache region since the application started.
+ */
+@Data
+@AllArgsConstructor
+public class CacheRegionReport {
+    @JsonProperty("region")
+    private String region;
+
+    @JsonProperty("hit_count")
+    private long hitCount;
+
+    @JsonProperty("miss_count")
+    private long missCount;
+
+    @JsonProperty("put_count")
+    private long putCount;
+
+    @JsonProperty("hit_ratio")
+    private double hitRatio;
+
+    public CacheRegionReport(String region, long hitCount, long missCount, long putCount) {
+        this(region, hitCount, missCount, putCount, hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount));
+    }
+}
@@ -0,0 +1,47 @@
+package com.hairlesscat.app.cache;
+
+import com.hairlesscat.app.util.ResponseWrapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheStatisticsController {
+    private final Statistics statistics;
+
+    @Autowired
+    public CacheStatisticsController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Hit and miss counts of every second-level cache region, including the query cache regions.
+     */
+    @GetMapping(path = "statistics")
+    public Map<String, List<CacheRegionReport>> getCacheStatistics() {
+        List<CacheRegionReport> reports = new ArrayList<>();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) continue;
+            reports.add(new CacheRegionReport(
+                    regionName,
+                    region.getHitCount(),
+                    region.getMissCount(),
+                    region.getPutCount()));
+        }
+        return ResponseWrapper.wrapResponse("regions", reports);
+    }
+}
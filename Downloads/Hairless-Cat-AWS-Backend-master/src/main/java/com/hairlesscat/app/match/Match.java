@@ -3,7 +3,6 @@ package com.hairlesscat.app.match;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonView;
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.hairlesscat.app.result.Result;
 import com.hairlesscat.app.schedule.Schedule;
@@ -13,13 +12,13 @@ import com.hairlesscat.app.user.User;
 import com.hairlesscat.app.util.TeamStatus;
 import com.hairlesscat.app.view.Views;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 @Entity
 @Table(
@@ -32,7 +31,7 @@ public class Match {
     @SequenceGenerator(
             name = "match_sequence_generator",
             sequenceName = "match_sequence_generator",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -52,17 +51,12 @@ public class Match {
     @JsonView(Views.MatchFull.class)
     private Tournament tournament;
 
-    @ElementCollection
-    @CollectionTable(
-            name = "match_team_status_map",
-            joinColumns = @JoinColumn(name = "match_id", referencedColumnName = "match_id"))
-    @MapKeyJoinColumn(name = "team_id", referencedColumnName = "team_id")
-    @Column(name = "team_status")
-    @JsonView(Views.MatchFull.class)
-    @JsonProperty("team_statuses")
-    @JsonSerialize(using = TeamStatusSerializer.class)
-    @JsonDeserialize(using = TeamStatusDeserializer.class)
-    private Map<Team, TeamStatus> teamStatusMap = new HashMap<>();
+    // The teams of the match with their statuses and ranks, see MatchParticipant
+    @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<MatchParticipant> participants = new ArrayList<>();
 
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(
@@ -96,15 +90,6 @@ public class Match {
     @JsonView(Views.MatchSummary.class)
     private LocalDateTime matchEndTime;
 
-    @ManyToMany(cascade = CascadeType.PERSIST)
-    @JoinTable(
-            name = "match_teams",
-            joinColumns = @JoinColumn(name = "team_id"),
-            inverseJoinColumns = @JoinColumn(name = "match_id"))
-    @JsonView(Views.MatchFull.class)
-    @JsonProperty("teams_in_match")
-    private List<Team> teamsInMatch;
-
     @ManyToOne
     @JoinColumn(
             name = "schedule_id",
@@ -113,28 +98,85 @@ public class Match {
     @JsonIgnore
     private Schedule schedule;
 
+    // Incremented by every update of the match or of its team statuses, including the SQL updates of MatchRepository
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private Long version;
+
 
     public Match(List<Team> teamsInMatch, LocalDateTime startTime, LocalDateTime endTime) {
-        this.teamsInMatch = teamsInMatch;
+        setTeamsInMatch(teamsInMatch);
         this.matchStartTime = startTime;
         this.matchEndTime = endTime;
-
-        Map<Team, TeamStatus> teamStatusMap = new HashMap<>();
-        for (Team team : teamsInMatch) {
-            teamStatusMap.put(team, TeamStatus.PENDING);
-        }
-        this.teamStatusMap = teamStatusMap;
     }
 
     public Match(Long matchId, Tournament tournament, MatchStatus status, Map<Team, TeamStatus> teamStatusMap, Result result, User user) {
         this.matchId = matchId;
         this.tournament = tournament;
         this.matchStatus = status;
-        this.teamStatusMap = teamStatusMap;
+        teamStatusMap.forEach((team, teamStatus) -> participants.add(new MatchParticipant(this, team, teamStatus)));
         this.result = result;
         this.adminUser = user;
     }
 
+    @JsonView(Views.MatchFull.class)
+    @JsonProperty("teams_in_match")
+    public List<Team> getTeamsInMatch() {
+        List<Team> teams = new ArrayList<>(participants.size());
+        participants.forEach(participant -> teams.add(participant.getTeam()));
+        return teams;
+    }
+
+    /**
+     * Replaces the teams of the match, every team starts as {@link TeamStatus#PENDING}.
+     */
+    @JsonProperty("teams_in_match")
+    public void setTeamsInMatch(List<Team> teamsInMatch) {
+        participants.clear();
+        teamsInMatch.forEach(team -> participants.add(new MatchParticipant(this, team, TeamStatus.PENDING)));
+    }
+
+    @JsonView(Views.MatchFull.class)
+    @JsonProperty(value = "team_statuses", access = JsonProperty.Access.READ_ONLY)
+    @JsonSerialize(using = TeamStatusSerializer.class)
+    public Map<Team, TeamStatus> getTeamStatusMap() {
+        Map<Team, TeamStatus> teamStatusMap = new LinkedHashMap<>();
+        participants.forEach(participant -> teamStatusMap.put(participant.getTeam(), participant.getStatus()));
+        return teamStatusMap;
+    }
+
+    /**
+     * @return the teams with a rank, the winner first.
+     */
+    public List<Team> getRankedTeams() {
+        List<Team> rankedTeams = new ArrayList<>();
+        participants.stream()
+                .filter(participant -> participant.getRank() != null)
+                .sorted(Comparator.comparing(MatchParticipant::getRank))
+                .forEach(participant -> rankedTeams.add(participant.getTeam()));
+        return rankedTeams;
+    }
+
+    /**
+     * Ranks the teams of the match in the order of {@code rankedTeams}, the teams not in it are left without a rank.
+     *
+     * @param scores the score of each ranked team, in the same order, or {@code null}.
+     * @throws IllegalArgumentException if one of the teams does not play in the match.
+     */
+    public void rankTeams(List<Team> rankedTeams, List<Integer> scores) {
+        for (Team team : rankedTeams) {
+            if (!getTeamsInMatch().contains(team)) {
+                throw new IllegalArgumentException("Team of id " + team.getTeamId() + " is not part of the match of id " + matchId);
+            }
+        }
+        for (MatchParticipant participant : participants) {
+            int index = rankedTeams.indexOf(participant.getTeam());
+            participant.setRank(index < 0 ? null : index + 1);
+            participant.setScore(index < 0 || scores == null ? null : scores.get(index));
+        }
+    }
+
     public Match setSchedule(Schedule schedule) {
 		this.schedule = schedule;
 		return this;
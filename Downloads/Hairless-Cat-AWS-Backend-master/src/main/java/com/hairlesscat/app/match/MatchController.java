@@ -1,6 +1,8 @@
 package com.hairlesscat.app.match;
 
 import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hairlesscat.app.archive.TournamentArchiveService;
 import com.hairlesscat.app.schedule.Schedule;
 import com.hairlesscat.app.schedule.ScheduleErrorException;
 import com.hairlesscat.app.schedule.ScheduleNotStartedException;
@@ -10,6 +12,7 @@ import com.hairlesscat.app.team.TeamService;
 import com.hairlesscat.app.tournament.Tournament;
 import com.hairlesscat.app.tournament.TournamentService;
 import com.hairlesscat.app.user.UserService;
+import com.hairlesscat.app.util.KeysetPage;
 import com.hairlesscat.app.util.ResponseWrapper;
 import com.hairlesscat.app.util.TeamStatus;
 import com.hairlesscat.app.view.Views;
@@ -29,40 +32,58 @@ public class MatchController {
     private final TournamentService tournamentService;
     private final ScheduleService scheduleService;
     private final UserService userService;
+    private final TournamentArchiveService tournamentArchiveService;
 
     @Autowired
-    public MatchController(MatchService matchService, TeamService teamService, TournamentService tournamentService, ScheduleService scheduleService, UserService userService) {
+    public MatchController(MatchService matchService, TeamService teamService, TournamentService tournamentService, ScheduleService scheduleService, UserService userService, TournamentArchiveService tournamentArchiveService) {
         this.matchService = matchService;
         this.teamService = teamService;
         this.tournamentService = tournamentService;
         this.scheduleService = scheduleService;
         this.userService = userService;
+        this.tournamentArchiveService = tournamentArchiveService;
     }
 
     @GetMapping()
     @JsonView(Views.MatchFull.class)
-    public Map<String, List<Match>> getAllMatches() {
-        List<Match> matches = matchService.getAllMatches();
-        Map<String, List<Match>> match = new HashMap<>();
-        match.put("matches", matches);
-        return match;
+    public Map<String, Object> getAllMatches(
+            @RequestParam(value = "cursor", defaultValue = "0") long cursor,
+            @RequestParam(value = "size", defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size) {
+        try {
+            List<Match> matches = matchService.getMatches(cursor, size);
+            return KeysetPage.wrapResponse("matches", matches, size, Match::getMatchId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping(path = "{match_id}")
     @JsonView(Views.MatchFull.class)
-    public ResponseEntity<Match> getMatchByMatchId(
+    public ResponseEntity<Object> getMatchByMatchId(
             @PathVariable("match_id") Long matchId) {
-        Match match = matchService.getMatchByMatchId(matchId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No match found with id " + matchId));
-        return ResponseEntity.ok(match);
+        Optional<Match> match = matchService.getMatchByMatchId(matchId);
+        if (match.isPresent()) {
+            return ResponseEntity.ok(match.get());
+        }
+        // The matches of an archived tournament are served from its archive
+        JsonNode archivedMatch = tournamentArchiveService
+                .getArchivedMatch(matchId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No match found with id " + matchId));
+        return ResponseEntity.ok(archivedMatch);
     }
 
     @GetMapping(params = {"tournament_id"})
     @JsonView(Views.MatchFull.class)
-    public ResponseEntity<Map<String, List<Match>>> getMatchesByTournament(@RequestParam(value = "tournament_id") Long tournamentId) {
-
-        Tournament tournament = tournamentService
-                .getTournamentByTournamentId(tournamentId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No tournament found with id " + tournamentId));
+    public ResponseEntity<Map<String, Object>> getMatchesByTournament(@RequestParam(value = "tournament_id") Long tournamentId) {
+
+        Optional<Tournament> found = tournamentService.getTournamentByTournamentId(tournamentId);
+        if (found.isEmpty()) {
+            JsonNode archivedMatches = tournamentArchiveService
+                    .getArchivedMatches(tournamentId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No tournament found with id " + tournamentId));
+            return ResponseEntity.ok(ResponseWrapper.wrapResponse("matches", archivedMatches));
+        }
+        Tournament tournament = found.get();
 
         Schedule schedule = tournament.getSchedule();
 
@@ -160,12 +181,10 @@ public class MatchController {
     @PostMapping(path = "actions/{match_id}/accept_match/{team_id}")
     public ResponseEntity<String> acceptMatch(@PathVariable("match_id") Long matchId,
                                               @PathVariable("team_id") Long teamId) {
-        Match match = matchService.getMatchByMatchId(matchId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No match found with id " + matchId));
-        Team team = teamService.getTeamById(teamId)
+        teamService.getTeamById(teamId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No team found with id " + teamId));
 
-        matchService.acceptMatch(team, match);
+        matchService.acceptMatch(matchId, teamId);
 
         return ResponseEntity.ok("Team of id " + teamId + " has accepted the match of id " + matchId);
     }
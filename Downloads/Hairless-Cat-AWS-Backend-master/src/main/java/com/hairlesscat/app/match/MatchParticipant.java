@@ -0,0 +1,56 @@
+package com.hairlesscat.app.match;
+
+import com.hairlesscat.app.team.Team;
+import com.hairlesscat.app.util.TeamStatus;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+
+/**
+ * A team playing in a match, with its confirmation status and, once the result of the match is entered, its rank
+ * and score. This is the only table linking matches to teams, the teams, team statuses and ranked teams of
+ * {@link Match} and {@link com.hairlesscat.app.result.Result} are all read from it.
+ */
+@Data
+@Entity
+@Table(name = "match_participant")
+@NoArgsConstructor
+@IdClass(MatchParticipantId.class)
+public class MatchParticipant {
+    @Id
+    @ManyToOne
+    @JoinColumn(
+            name = "match_id",
+            referencedColumnName = "match_id"
+    )
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Match match;
+
+    @Id
+    @ManyToOne
+    @JoinColumn(
+            name = "team_id",
+            referencedColumnName = "team_id"
+    )
+    private Team team;
+
+    @Column(name = "status", nullable = false)
+    private TeamStatus status = TeamStatus.PENDING;
+
+    // 1 for the winner, null until the result of the match is entered
+    @Column(name = "rank")
+    private Integer rank;
+
+    @Column(name = "score")
+    private Integer score;
+
+    public MatchParticipant(Match match, Team team, TeamStatus status) {
+        this.match = match;
+        this.team = team;
+        this.status = status;
+    }
+}
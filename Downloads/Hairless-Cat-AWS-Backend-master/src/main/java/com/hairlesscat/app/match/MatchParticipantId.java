@@ -0,0 +1,8 @@
+package com.hairlesscat.app.match;
+
+import java.io.Serializable;
+
+public class MatchParticipantId implements Serializable {
+    private Long match;
+    private Long team;
+}
@@ -2,28 +2,64 @@ package com.hairlesscat.app.match;
 
 import com.hairlesscat.app.team.Team;
 import com.hairlesscat.app.util.TeamStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.transaction.annotation.Transactional;
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
 
 @Repository
 public interface MatchRepository extends JpaRepository<Match, Long> {
 
+    @Query("SELECT m FROM Match m LEFT JOIN FETCH m.tournament LEFT JOIN FETCH m.result LEFT JOIN FETCH m.adminUser WHERE m.matchId > ?1 ORDER BY m.matchId")
+    List<Match> findPage(Long cursor, Pageable limit);
+
     List<Match> findAllByTournament_TournamentId(Long tournamentId);
 
-    List<Match> findAllByTeamsInMatchContaining(Team team);
+    @Query("SELECT m FROM Match m JOIN m.participants p WHERE p.team = ?1")
+    List<Match> findAllByParticipatingTeam(Team team);
 
 	List<Match> findAllByAdminUser_UserId(String userId);
 
 	List<Match> findAllByMatchStatusEquals(MatchStatus matchStatus);
 
-	@Query(value = "SELECT * FROM match NATURAL JOIN (SELECT * FROM match_team_status_map as mts WHERE mts.team_id = ?1 AND mts.team_status = ?2) as temp", nativeQuery = true)
-	List<Match> findAllByTeamWithTeamStatus(Team team, int teamStatus);
+	@Query("SELECT m FROM Match m JOIN m.participants p WHERE p.team = ?1 AND p.status = ?2")
+	List<Match> findAllByTeamWithTeamStatus(Team team, TeamStatus teamStatus);
+
+	// Acceptance of a match by its teams, see MatchService.acceptMatch. The native updates declare the table they
+	// change, so they only invalidate the cached queries on that table.
+
+	@Query(value = "SELECT version FROM match WHERE match_id = ?1", nativeQuery = true)
+	Optional<Long> findVersion(Long matchId);
+
+	@Query(value = "SELECT status FROM match_participant WHERE match_id = ?1 AND team_id = ?2", nativeQuery = true)
+	Optional<Integer> findTeamStatus(Long matchId, Long teamId);
+
+	@Modifying
+	@Query(value = "UPDATE match_participant SET status = ?4 WHERE match_id = ?1 AND team_id = ?2 AND status = ?3", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "match_participant"))
+	int updateTeamStatus(Long matchId, Long teamId, int expectedTeamStatus, int teamStatus);
+
+	@Modifying
+	@Query(value = "UPDATE match SET version = version + 1 WHERE match_id = ?1 AND version = ?2", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "match"))
+	int incrementVersionIfUnchanged(Long matchId, long expectedVersion);
+
+	// Only run after incrementVersionIfUnchanged in the same transaction, which already incremented the version
+	@Modifying
+	@Query(value = "UPDATE match SET match_status = ?3 WHERE match_id = ?1 AND match_status = ?2 " +
+			"AND NOT EXISTS (SELECT 1 FROM match_participant p WHERE p.match_id = ?1 AND p.status <> ?4)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "match"))
+	int updateMatchStatusIfAllTeamsHaveStatus(Long matchId, int expectedMatchStatus, int matchStatus, int teamStatus);
 
 	@Modifying
 	@Transactional
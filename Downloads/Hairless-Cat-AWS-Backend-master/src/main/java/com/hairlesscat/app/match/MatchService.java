@@ -1,31 +1,40 @@
 package com.hairlesscat.app.match;
 
 import com.hairlesscat.app.team.Team;
+import com.hairlesscat.app.util.KeysetPage;
 import com.hairlesscat.app.util.TeamStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.transaction.Transactional;
 import java.util.*;
 
 @Service
 public class MatchService {
+    // Attempts of acceptMatch before giving up on a match that keeps being changed concurrently
+    static final int MAX_ACCEPT_ATTEMPTS = 5;
 
     private final MatchRepository matchRepository;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public MatchService(MatchRepository matchRepository) {
+    public MatchService(MatchRepository matchRepository, PlatformTransactionManager transactionManager) {
         this.matchRepository = matchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public Optional<Match> getMatchByMatchId(Long matchId) {
         return matchRepository.findById(matchId);
     }
 
-    public List<Match> getAllMatches() {
-        return matchRepository.findAll();
+    /**
+     * @return the first {@code size} + 1 matches with an id greater than {@code cursor}, see {@link KeysetPage}.
+     */
+    public List<Match> getMatches(long cursor, int size) {
+        return matchRepository.findPage(cursor, KeysetPage.limit(size));
     }
 
     public List<Match> getMatchByTournament(Long tournamentId) {
@@ -36,6 +45,10 @@ public class MatchService {
         return matchRepository.save(match);
     }
 
+    public List<Match> createMatches(List<Match> matches) {
+        return matchRepository.saveAll(matches);
+    }
+
     public void deleteMatch(Long mid) {
         boolean exists = matchRepository.existsById(mid);
         if (!exists) {
@@ -50,7 +63,7 @@ public class MatchService {
     }
 
 	public List<Match> getMatchesOfTeam(Team team) {
-		return matchRepository.findAllByTeamsInMatchContaining(team);
+		return matchRepository.findAllByParticipatingTeam(team);
 	}
 
     public List<Match> getAllMatchesWithStatus(MatchStatus status) {
@@ -58,31 +71,66 @@ public class MatchService {
     }
 
     public List<Match> getAllMatchesOfTeamWithTeamStatus(Team team, TeamStatus status) {
-        return matchRepository.findAllByTeamWithTeamStatus(team, status.getValue());
+        return matchRepository.findAllByTeamWithTeamStatus(team, status);
     }
 
-    public boolean checkIfAllTeamsAccepted(Match match) {
-        for (TeamStatus status : match.getTeamStatusMap().values()) {
-            if (status != TeamStatus.CONFIRMED) {
-                return false;
-            }
+    /**
+     * Confirms the match for the team, and makes the match upcoming once all its teams have confirmed it.
+     * <p>
+     * Runs as a few SQL statements instead of loading the match, without locking it up front. The match version is
+     * read first and incremented with a compare-and-set once the team status is changed. Under READ COMMITTED two
+     * teams accepting at the same time do not see each other's confirmation, so when the compare-and-set finds the
+     * version changed the attempt is rolled back and retried in a new transaction, which then sees the confirmation
+     * of the other team and can promote the match. An update of a match loaded before fails with an optimistic
+     * locking error instead of overwriting the statuses. Accepting a match twice has no further effect.
+     * <p>
+     * Each attempt runs in its own transaction, so this must not be called inside a transaction.
+     *
+     * @return {@code true} if the match became upcoming.
+     * @throws ResponseStatusException with {@link HttpStatus#CONFLICT} if the match was changed concurrently on every
+     * attempt, or the team cancelled the match.
+     */
+    public boolean acceptMatch(Long matchId, Long teamId) {
+        for (int attempt = 0; attempt < MAX_ACCEPT_ATTEMPTS; attempt++) {
+            Boolean promoted = transactionTemplate.execute(status -> {
+                Optional<Boolean> accepted = tryAcceptMatch(matchId, teamId);
+                if (accepted.isEmpty()) status.setRollbackOnly();
+                return accepted.orElse(null);
+            });
+            if (promoted != null) return promoted;
         }
-        return true;
-    }
-
-    public void setMatchStatusUpcoming(Match match) {
-        match.setMatchStatusUpcoming();
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "The match of id " + matchId + " is being changed concurrently, try again.");
     }
 
-    @Transactional
-    public void acceptMatch(Team team, Match match) {
-
-        Map<Team, TeamStatus> map = match.getTeamStatusMap();
-        map.replace(team, TeamStatus.CONFIRMED);
+    /**
+     * @return whether the match became upcoming, or empty if the match was changed since its version was read.
+     */
+    private Optional<Boolean> tryAcceptMatch(Long matchId, Long teamId) {
+        long version = matchRepository.findVersion(matchId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No match found with id " + matchId));
+
+        int confirmed = matchRepository.updateTeamStatus(matchId, teamId, TeamStatus.PENDING.getValue(), TeamStatus.CONFIRMED.getValue());
+        if (confirmed == 0) {
+            int teamStatus = matchRepository.findTeamStatus(matchId, teamId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Team of id " + teamId + " is not part of the match of id " + matchId));
+            if (teamStatus == TeamStatus.CANCELLED.getValue()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Team of id " + teamId + " has cancelled the match of id " + matchId);
+            }
+            // Already confirmed
+            return Optional.of(false);
+        }
 
-        if (checkIfAllTeamsAccepted(match)) {
-            setMatchStatusUpcoming(match);
+        if (matchRepository.incrementVersionIfUnchanged(matchId, version) == 0) {
+            return Optional.empty();
         }
+        // Every acceptance committed before the compare-and-set is visible to this statement, later ones wait for this
+        // transaction and then fail their compare-and-set
+        int promoted = matchRepository.updateMatchStatusIfAllTeamsHaveStatus(
+                matchId,
+                MatchStatus.PENDING_TEAM_CONFIRMATION.ordinal(),
+                MatchStatus.UPCOMING.ordinal(),
+                TeamStatus.CONFIRMED.getValue());
+        return Optional.of(promoted == 1);
     }
 
 	public void setMatchStatusComplete(Long match_id) {
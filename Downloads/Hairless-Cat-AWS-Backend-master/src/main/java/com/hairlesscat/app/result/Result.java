@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.hairlesscat.app.match.Match;
+import com.hairlesscat.app.match.MatchParticipant;
 import com.hairlesscat.app.team.Team;
 import com.hairlesscat.app.view.Views;
 import lombok.Builder;
@@ -12,6 +13,7 @@ import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Entity
@@ -24,7 +26,7 @@ public class Result {
 	@SequenceGenerator(
 		name = "result_sequence_generator",
 		sequenceName = "result_sequence_generator",
-		allocationSize = 1
+		allocationSize = 50
 	)
 	@GeneratedValue(
 		generator = "result_sequence_generator",
@@ -35,15 +37,6 @@ public class Result {
 	@JsonView(Views.Public.class)
 	private Long resultId;
 
-	@ManyToMany(cascade = CascadeType.PERSIST)
-	@JoinTable(
-		name= "result_teams",
-		joinColumns = @JoinColumn(name = "team_id"),
-		inverseJoinColumns = @JoinColumn(name = "result_id"))
-	@JsonView(Views.ResultSummary.class)
-	@JsonProperty("team_results")
-	private List<Team> rankedTeam;
-
 	@OneToOne(cascade = CascadeType.PERSIST)
 	@JoinColumn(
 		name = "result_match_id",
@@ -53,13 +46,33 @@ public class Result {
 	@JsonView(Views.ResultFull.class)
 	private Match match;
 
-	public Result(List<Team> rankedTeamArr, Match match){
-		this.rankedTeam = rankedTeamArr;
+	public Result(Match match){
 		this.match = match;
 	}
 
-	public Result(Long resultId, List<Team> rankedTeamArr, Match match){
-		this.rankedTeam = rankedTeamArr;
+	public Result(Long resultId, Match match){
+		this.resultId = resultId;
 		this.match = match;
 	}
+
+	// The ranks and scores are stored with the teams of the match, see MatchParticipant
+
+	@JsonView(Views.ResultSummary.class)
+	@JsonProperty("team_results")
+	public List<Team> getRankedTeam() {
+		return match == null ? List.of() : match.getRankedTeams();
+	}
+
+	@JsonView(Views.ResultSummary.class)
+	@JsonProperty("team_scores")
+	public List<Integer> getTeamScores() {
+		List<Integer> scores = new ArrayList<>();
+		if (match != null) {
+			match.getParticipants().stream()
+				.filter(participant -> participant.getRank() != null)
+				.sorted(Comparator.comparing(MatchParticipant::getRank))
+				.forEach(participant -> scores.add(participant.getScore()));
+		}
+		return scores;
+	}
 }
@@ -1,11 +1,14 @@
 package com.hairlesscat.app.result;
 
 import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hairlesscat.app.archive.TournamentArchiveService;
 import com.hairlesscat.app.match.Match;
 import com.hairlesscat.app.match.MatchService;
 import com.hairlesscat.app.team.Team;
 import com.hairlesscat.app.view.Views;
 import com.hairlesscat.app.team.TeamService;
+import com.hairlesscat.app.util.KeysetPage;
 import com.hairlesscat.app.util.ResponseWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,37 +24,50 @@ public class  ResultController {
 	private final ResultService resultService;
 	private final MatchService matchService;
 	private final TeamService teamService;
+	private final TournamentArchiveService tournamentArchiveService;
 
 	@Autowired
-	public ResultController(ResultService resultService, MatchService matchService, TeamService teamService) {
+	public ResultController(ResultService resultService, MatchService matchService, TeamService teamService, TournamentArchiveService tournamentArchiveService) {
 		this.resultService = resultService;
 		this.matchService = matchService;
 		this.teamService = teamService;
+		this.tournamentArchiveService = tournamentArchiveService;
 	}
 
 	@GetMapping()
 	@JsonView(Views.ResultSummary.class)
-	public Map<String, List<Result>> getResults() {
-		List<Result> results = resultService.getResults();
-		Map<String, List<Result>> result = new HashMap<>();
-		result.put("results", results);
-		return result;
+	public Map<String, Object> getResults(
+		@RequestParam(value = "cursor", defaultValue = "0") long cursor,
+		@RequestParam(value = "size", defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size) {
+		try {
+			List<Result> results = resultService.getResults(cursor, size);
+			return KeysetPage.wrapResponse("results", results, size, Result::getResultId);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
 	}
 
 	@GetMapping(path = "{result_id}")
 	@JsonView(Views.ResultFull.class)
-	public ResponseEntity<Result> getResultById(@PathVariable(value="result_id") Long resultId) {
-		Result result =  resultService.getResultById(resultId)
+	public ResponseEntity<Object> getResultById(@PathVariable(value="result_id") Long resultId) {
+		Optional<Result> result = resultService.getResultById(resultId);
+		if (result.isPresent()) {
+			return ResponseEntity.ok(result.get());
+		}
+		// The results of an archived tournament are served from its archive
+		JsonNode archivedResult = tournamentArchiveService.getArchivedResult(resultId)
 			.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No result found with id " + resultId));
-		return ResponseEntity.ok(result);
+		return ResponseEntity.ok(archivedResult);
 	}
 
 	@GetMapping(path = "{match_id}/match")
 	@JsonView(Views.ResultFull.class)
-	public ResponseEntity<Result> getResultByMatchId(@PathVariable(value="match_id") Long matchId) {
+	public ResponseEntity<Object> getResultByMatchId(@PathVariable(value="match_id") Long matchId) {
 		List<Result> results = resultService.getResultByMatch(matchId);
 		if (results == null || results.isEmpty()) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No match found with id " + matchId);
+			JsonNode archivedResult = tournamentArchiveService.getArchivedResultOfMatch(matchId)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No match found with id " + matchId));
+			return ResponseEntity.ok(archivedResult);
 		}
 		Result result = results.get(0);
 		return ResponseEntity.ok(result);
@@ -71,7 +87,24 @@ public class  ResultController {
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No team found with id " + team_id));
 			rankedTeams.add(team);
 		}
-		return ResponseEntity.ok(resultService.createResult(rankedTeams, match));
+
+		// Optional, the score of each team of team_results in the same order
+		List<Integer> scores = null;
+		if (requestBody.get("team_scores") != null) {
+			if (requestBody.get("team_scores").length != orderedTeam_ids.size()) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "team_scores must have one score for each team of team_results");
+			}
+			scores = new ArrayList<>();
+			for (Long score : requestBody.get("team_scores")) {
+				scores.add(score == null ? null : score.intValue());
+			}
+		}
+
+		try {
+			return ResponseEntity.ok(resultService.createResult(rankedTeams, scores, match));
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
 	}
 
 	@DeleteMapping(path = "{match_id}")
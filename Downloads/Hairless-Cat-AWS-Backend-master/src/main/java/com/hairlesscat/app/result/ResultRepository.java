@@ -1,5 +1,6 @@
 package com.hairlesscat.app.result;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -10,6 +11,9 @@ import java.util.Optional;
 @Repository
 public interface ResultRepository extends  JpaRepository<Result, Long>{
 
+	@Query("SELECT r FROM Result r LEFT JOIN FETCH r.match WHERE r.resultId > ?1 ORDER BY r.resultId")
+	List<Result> findPage(Long cursor, Pageable limit);
+
 	@Query(value = "SELECT * FROM result WHERE result_match_id = ?1", nativeQuery = true)
 	List<Result> findByMatch(Long mid);
 }
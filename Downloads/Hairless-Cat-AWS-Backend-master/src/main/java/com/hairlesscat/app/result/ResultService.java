@@ -2,11 +2,14 @@ package com.hairlesscat.app.result;
 
 import com.hairlesscat.app.match.Match;
 import com.hairlesscat.app.team.Team;
+import com.hairlesscat.app.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.transaction.Transactional;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -20,8 +23,11 @@ public class ResultService {
 		this.resultRepository = resultRepository;
 	}
 
-	public List<Result> getResults() {
-		return resultRepository.findAll();
+	/**
+	 * @return the first {@code size} + 1 results with an id greater than {@code cursor}, see {@link KeysetPage}.
+	 */
+	public List<Result> getResults(long cursor, int size) {
+		return resultRepository.findPage(cursor, KeysetPage.limit(size));
 	}
 
 	public Optional<Result> getResultById(Long resultId) {
@@ -33,21 +39,32 @@ public class ResultService {
 	}
 
 
-	public Result createResult(List<Team> rankedTeamArr, Match match) {
+	/**
+	 * @param scores the score of each ranked team, in the same order, or {@code null}.
+	 * @throws IllegalArgumentException if one of the ranked teams does not play in the match.
+	 */
+	@Transactional
+	public Result createResult(List<Team> rankedTeamArr, List<Integer> scores, Match match) {
+		match.rankTeams(rankedTeamArr, scores);
 		Result result = Result.builder()
-			.rankedTeam(rankedTeamArr)
 			.match(match)
 			.build();
 
-		return resultRepository.save(result);
+		result = resultRepository.save(result);
+		// The results of a team are found through the matches it plays in
+		match.setResult(result);
+		return result;
 	}
 
+	@Transactional
 	public void deleteResultByMatch(Long mid) {
 		List<Result> results = getResultByMatch(mid);
 		if (results.isEmpty() || results == null) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No result found with given match " + mid);
 		}
 		Result r = results.get(0);
+		r.getMatch().rankTeams(List.of(), null);
+		r.getMatch().setResult(null);
 		resultRepository.delete(r);
 	}
 
@@ -0,0 +1,32 @@
+package com.hairlesscat.app.schedule;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stores a set of days of the week as a comma separated list of day names, e.g. {@code "MONDAY,FRIDAY"}.
+ */
+@Converter
+public class DaysOfWeekConverter implements AttributeConverter<Set<DayOfWeek>, String> {
+    @Override
+    public String convertToDatabaseColumn(Set<DayOfWeek> days) {
+        if (days == null || days.isEmpty()) return null;
+        return EnumSet.copyOf(days).stream().map(DayOfWeek::name).collect(Collectors.joining(","));
+    }
+
+    // Hibernate passes a NULL column to the converter as well. Returning null keeps the whole embedded
+    // ScheduleRecurrence null when none of its columns are set, instead of an invalid recurrence without days.
+    @Override
+    public Set<DayOfWeek> convertToEntityAttribute(String days) {
+        if (days == null || days.isBlank()) return null;
+        Set<DayOfWeek> result = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : days.split(",")) {
+            result.add(DayOfWeek.valueOf(day.trim()));
+        }
+        return result;
+    }
+}
@@ -11,10 +11,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -23,7 +26,10 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "schedule")
 public class Schedule {
+    public static final int DEFAULT_SLOT_DURATION_MINUTES = 30;
+
     @Id
     @SequenceGenerator(
             name = "schedule_sequence_generator",
@@ -55,6 +61,25 @@ public class Schedule {
     @JsonView(Views.ScheduleSummary.class)
     private LocalDateTime tournamentEndTime;
 
+    @JsonProperty("slot_duration_minutes")
+    @Column(name = "slot_duration_minutes")
+    @Builder.Default
+    @JsonView(Views.ScheduleSummary.class)
+    private Integer slotDurationMinutes = DEFAULT_SLOT_DURATION_MINUTES;
+
+    // When set, timeslots are only laid out inside the daily window on the given days of the week
+    @Embedded
+    @JsonProperty("recurrence")
+    @JsonView(Views.ScheduleSummary.class)
+    private ScheduleRecurrence recurrence;
+
+    // When set, timeslots are computed from the start, end and slot duration and only persisted once they are needed
+    @JsonProperty("virtual_timeslots")
+    @Column(name = "virtual_timeslots")
+    @Builder.Default
+    @JsonView(Views.ScheduleSummary.class)
+    private boolean virtualTimeslots = false;
+
     @OneToOne(mappedBy = "schedule")
     @JsonIgnore
     private Tournament tournament;
@@ -63,6 +88,8 @@ public class Schedule {
             mappedBy = "schedule",
             cascade = CascadeType.ALL
     )
+    // Keeps the positions stored in a cached TimeslotIndex stable between loads, same as TournamentTimeslot.SCHEDULE_ORDER
+    @OrderBy("startTime ASC, timeslotId ASC")
     @JsonProperty("timeslots")
     @JsonView(Views.ScheduleFull.class)
     private List<TournamentTimeslot> timeslots;
@@ -79,11 +106,35 @@ public class Schedule {
     @JsonView(Views.ScheduleSummary.class)
     private ScheduleStatus scheduleStatus = ScheduleStatus.SCHEDULE_NOT_GENERATED;
 
+    @Column(name = "schedule_seed")
+    @JsonProperty("schedule_seed")
+    @JsonView(Views.ScheduleExtended.class)
+    private Long scheduleSeed;
+
     @Column(name = "schedule_status_error_message")
     @JsonProperty("schedule_status_error_message")
     @JsonView(Views.ScheduleExtended.class)
     private String scheduleStatusErrorMessage;
 
+    @Embedded
+    @JsonProperty("schedule_metrics")
+    @JsonView(Views.ScheduleExtended.class)
+    private ScheduleMetrics metrics;
+
+    @ElementCollection
+    @CollectionTable(
+            name = "schedule_team_metrics",
+            joinColumns = @JoinColumn(name = "schedule_id", referencedColumnName = "schedule_id"))
+    @JsonProperty("team_metrics")
+    @JsonView(Views.ScheduleExtended.class)
+    @Builder.Default
+    private List<TeamScheduleMetrics> teamMetrics = new ArrayList<>();
+
+    public Integer getSlotDurationMinutes() {
+        // Schedules created before the slot duration was configurable use 30 minute slots
+        return slotDurationMinutes == null ? DEFAULT_SLOT_DURATION_MINUTES : slotDurationMinutes;
+    }
+
     public void setScheduleStatusError(String message) {
         this.scheduleStatus = ScheduleStatus.SCHEDULE_ERROR;
         this.scheduleStatusErrorMessage = message;
@@ -0,0 +1,192 @@
+package com.hairlesscat.app.schedule;
+
+import com.hairlesscat.app.algorithm.Algorithm;
+import com.hairlesscat.app.algorithm.AvailabilityMatrix;
+import com.hairlesscat.app.algorithm.RoundRobinSolution;
+import com.hairlesscat.app.team.Team;
+import com.hairlesscat.app.tournament.TournamentParameter;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslotService;
+import com.hairlesscat.app.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Evaluates candidate schedule configurations without writing anything to the database.
+ * <p>
+ * The availability the teams have already indicated on the persisted timeslots is projected onto the timeslots
+ * of every candidate: a team is available for a candidate timeslot if its indicated availability fully covers it.
+ * Results are memoized by the fingerprint of the resulting {@link AvailabilityMatrix}.
+ */
+@Service
+public class ScheduleFeasibilityService {
+    public static final int MAX_CANDIDATES = 20;
+    public static final int MAX_TIMESLOTS_PER_CANDIDATE = 5000;
+    private static final int CACHE_SIZE = 256;
+
+    private final TournamentTimeslotService tournamentTimeslotService;
+    private final LruCache<String, WhatIfResult> results = new LruCache<>(CACHE_SIZE);
+
+    @Autowired
+    public ScheduleFeasibilityService(TournamentTimeslotService tournamentTimeslotService) {
+        this.tournamentTimeslotService = tournamentTimeslotService;
+    }
+
+    /**
+     * Evaluates every candidate in parallel.
+     *
+     * @param schedule the schedule holding the indicated team availabilities.
+     * @param parameter the tournament parameters, giving the match duration.
+     * @param teams the teams of the tournament.
+     * @param candidates the candidate configurations.
+     * @return one result per candidate, in the order of {@code candidates}.
+     * @throws IllegalArgumentException if a candidate is not a valid configuration.
+     */
+    public List<WhatIfResult> evaluate(Schedule schedule, TournamentParameter parameter, Collection<Team> teams, List<WhatIfCandidate> candidates) {
+        if (candidates.isEmpty() || candidates.size() > MAX_CANDIDATES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_CANDIDATES + " candidates must be provided.");
+        }
+        if (teams.size() < 2) {
+            throw new IllegalArgumentException("At least 2 teams are required to evaluate a round robin schedule.");
+        }
+        candidates.forEach(ScheduleFeasibilityService::validateCandidate);
+
+        // Read everything we need from the entities on the calling thread, the evaluation itself is entity free.
+        long[] teamIds = teams.stream().mapToLong(Team::getTeamId).sorted().toArray();
+        Map<Long, List<LocalDateTime[]>> teamIntervals = availabilityIntervalsByTeam(schedule.getTimeslots());
+
+        return candidates
+                .parallelStream()
+                .map(candidate -> evaluateCandidate(candidate, parameter.slotsPerMatch(candidate.getSlotDurationMinutes()), teamIds, teamIntervals))
+                .toList();
+    }
+
+    private WhatIfResult evaluateCandidate(WhatIfCandidate candidate, int slotsPerMatch, long[] teamIds, Map<Long, List<LocalDateTime[]>> teamIntervals) {
+        List<TournamentTimeslot> timeslots = tournamentTimeslotService.generateTimeslotsFromStartAndEndTime(
+                candidate.getTournamentStartTime(),
+                candidate.getTournamentEndTime(),
+                candidate.getSlotDurationMinutes());
+
+        AvailabilityMatrix matrix = projectAvailabilities(timeslots, teamIds, teamIntervals);
+        String fingerprint = matrix.fingerprint();
+        String cacheKey = fingerprint + ":" + slotsPerMatch;
+
+        Optional<WhatIfResult> cached = results.get(cacheKey);
+        if (cached.isPresent()) {
+            WhatIfResult result = cached.get();
+            return new WhatIfResult(candidate, result.getNumTimeslots(), result.getRequiredMatches(), result.getMaxMatchingSize(),
+                    result.isFeasible(), result.getBottleneckTeams(), fingerprint);
+        }
+
+        RoundRobinSolution solution = Algorithm.matchPairingsToTimeslots(matrix, null, slotsPerMatch);
+        List<WhatIfResult.BottleneckTeam> bottleneckTeams = new ArrayList<>();
+        solution.unscheduledPairingsPerTeam().forEach((teamIndex, count) ->
+                bottleneckTeams.add(new WhatIfResult.BottleneckTeam(matrix.teamId(teamIndex), count)));
+
+        WhatIfResult result = new WhatIfResult(
+                candidate,
+                matrix.numTimeslots(),
+                solution.numPairings(),
+                solution.matchingSize(),
+                solution.isPerfect(),
+                bottleneckTeams,
+                fingerprint);
+        results.put(cacheKey, result);
+        return result;
+    }
+
+    private static AvailabilityMatrix projectAvailabilities(List<TournamentTimeslot> timeslots, long[] teamIds, Map<Long, List<LocalDateTime[]>> teamIntervals) {
+        int numTimeslots = timeslots.size();
+        LocalDateTime[] startTimes = new LocalDateTime[numTimeslots];
+        LocalDateTime[] endTimes = new LocalDateTime[numTimeslots];
+        for (int k = 0; k < numTimeslots; k++) {
+            startTimes[k] = timeslots.get(k).getStartTime();
+            endTimes[k] = timeslots.get(k).getEndTime();
+        }
+
+        BitSet[] availabilities = new BitSet[teamIds.length];
+        for (int i = 0; i < teamIds.length; i++) {
+            availabilities[i] = new BitSet(numTimeslots);
+            List<LocalDateTime[]> intervals = teamIntervals.getOrDefault(teamIds[i], List.of());
+            for (int k = 0; k < numTimeslots; k++) {
+                if (isCovered(intervals, startTimes[k], endTimes[k])) {
+                    availabilities[i].set(k);
+                }
+            }
+        }
+
+        return new AvailabilityMatrix(teamIds, startTimes, endTimes, availabilities);
+    }
+
+    /**
+     * Collects, for every team, the sorted and merged time intervals of the timeslots it indicated availability for.
+     */
+    private static Map<Long, List<LocalDateTime[]>> availabilityIntervalsByTeam(List<TournamentTimeslot> timeslots) {
+        Map<Long, List<LocalDateTime[]>> intervals = new HashMap<>();
+        if (timeslots == null) return intervals;
+
+        for (TournamentTimeslot timeslot : timeslots) {
+            for (Team team : timeslot.getAvailableTeams()) {
+                intervals
+                        .computeIfAbsent(team.getTeamId(), teamId -> new ArrayList<>())
+                        .add(new LocalDateTime[]{timeslot.getStartTime(), timeslot.getEndTime()});
+            }
+        }
+
+        intervals.replaceAll((teamId, teamIntervals) -> mergeIntervals(teamIntervals));
+        return intervals;
+    }
+
+    private static List<LocalDateTime[]> mergeIntervals(List<LocalDateTime[]> intervals) {
+        intervals.sort(Comparator.comparing((LocalDateTime[] interval) -> interval[0]));
+        List<LocalDateTime[]> merged = new ArrayList<>();
+        for (LocalDateTime[] interval : intervals) {
+            LocalDateTime[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && !interval[0].isAfter(last[1])) {
+                if (interval[1].isAfter(last[1])) last[1] = interval[1];
+            } else {
+                merged.add(new LocalDateTime[]{interval[0], interval[1]});
+            }
+        }
+        return merged;
+    }
+
+    private static boolean isCovered(List<LocalDateTime[]> mergedIntervals, LocalDateTime start, LocalDateTime end) {
+        // Binary search for the last interval starting at or before start
+        int lo = 0;
+        int hi = mergedIntervals.size() - 1;
+        int candidate = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (mergedIntervals.get(mid)[0].isAfter(start)) {
+                hi = mid - 1;
+            } else {
+                candidate = mid;
+                lo = mid + 1;
+            }
+        }
+        return candidate != -1 && !mergedIntervals.get(candidate)[1].isBefore(end);
+    }
+
+    private static void validateCandidate(WhatIfCandidate candidate) {
+        LocalDateTime start = candidate.getTournamentStartTime();
+        LocalDateTime end = candidate.getTournamentEndTime();
+        Integer slotDurationMinutes = candidate.getSlotDurationMinutes();
+
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new IllegalArgumentException("Every candidate must have a tournament_start_time before its tournament_end_time.");
+        }
+        if (slotDurationMinutes == null || slotDurationMinutes <= 0) {
+            throw new IllegalArgumentException("slot_duration_minutes must be a positive number of minutes.");
+        }
+        long numTimeslots = (Duration.between(start, end).toMinutes() + slotDurationMinutes - 1) / slotDurationMinutes;
+        if (numTimeslots > MAX_TIMESLOTS_PER_CANDIDATE) {
+            throw new IllegalArgumentException(String.format(
+                    "A candidate cannot have more than %d timeslots, got %d.", MAX_TIMESLOTS_PER_CANDIDATE, numTimeslots));
+        }
+    }
+}
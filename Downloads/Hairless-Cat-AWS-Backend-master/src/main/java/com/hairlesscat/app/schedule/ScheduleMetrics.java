@@ -0,0 +1,45 @@
+package com.hairlesscat.app.schedule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.hairlesscat.app.view.Views;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+/**
+ * Aggregate quality metrics of a generated schedule, see {@link ScheduleMetricsCalculator}.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleMetrics {
+    @Column(name = "metrics_makespan_minutes")
+    @JsonProperty("makespan_minutes")
+    @JsonView(Views.ScheduleExtended.class)
+    private Long makespanMinutes;
+
+    @Column(name = "metrics_slot_utilisation")
+    @JsonProperty("slot_utilisation")
+    @JsonView(Views.ScheduleExtended.class)
+    private Double slotUtilisation;
+
+    @Column(name = "metrics_back_to_back_count")
+    @JsonProperty("back_to_back_count")
+    @JsonView(Views.ScheduleExtended.class)
+    private Integer backToBackCount;
+
+    @Column(name = "metrics_total_idle_minutes")
+    @JsonProperty("total_idle_minutes")
+    @JsonView(Views.ScheduleExtended.class)
+    private Long totalIdleMinutes;
+
+    @Column(name = "metrics_max_idle_minutes")
+    @JsonProperty("max_idle_minutes")
+    @JsonView(Views.ScheduleExtended.class)
+    private Long maxIdleMinutes;
+}
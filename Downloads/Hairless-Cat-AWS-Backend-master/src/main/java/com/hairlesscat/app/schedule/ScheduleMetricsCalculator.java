@@ -0,0 +1,92 @@
+package com.hairlesscat.app.schedule;
+
+import com.hairlesscat.app.match.Match;
+import com.hairlesscat.app.team.Team;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Computes the quality metrics of a schedule in a single pass over its matches sorted by start time.
+ * <ul>
+ *     <li>idle gap: time a team waits between the end of a match and the start of its next match</li>
+ *     <li>back to back: a match starting exactly when the previous match of the same team ends</li>
+ *     <li>slot utilisation: minutes of matches divided by the minutes of timeslots in the schedule</li>
+ *     <li>makespan: time between the start of the first match and the end of the last match</li>
+ * </ul>
+ */
+public class ScheduleMetricsCalculator {
+    private final List<TeamScheduleMetrics> teamMetrics = new ArrayList<>();
+    private ScheduleMetrics metrics;
+
+    private ScheduleMetricsCalculator() {
+    }
+
+    /**
+     * @param matches the matches of the schedule.
+     * @param timeslotMinutes total number of minutes covered by the timeslots of the schedule.
+     */
+    public static ScheduleMetricsCalculator compute(Collection<Match> matches, long timeslotMinutes) {
+        ScheduleMetricsCalculator calculator = new ScheduleMetricsCalculator();
+        calculator.run(matches, timeslotMinutes);
+        return calculator;
+    }
+
+    public ScheduleMetrics getMetrics() {
+        return metrics;
+    }
+
+    public List<TeamScheduleMetrics> getTeamMetrics() {
+        return teamMetrics;
+    }
+
+    private void run(Collection<Match> matches, long timeslotMinutes) {
+        List<Match> sortedMatches = new ArrayList<>(matches);
+        sortedMatches.sort(Comparator.comparing(Match::getMatchStartTime));
+
+        Map<Long, LocalDateTime> lastMatchEnd = new HashMap<>();
+        Map<Long, TeamScheduleMetrics> metricsByTeam = new LinkedHashMap<>();
+        LocalDateTime firstStart = null;
+        LocalDateTime lastEnd = null;
+        long matchMinutes = 0;
+        int backToBackCount = 0;
+        long totalIdleMinutes = 0;
+        long maxIdleMinutes = 0;
+
+        for (Match match : sortedMatches) {
+            LocalDateTime start = match.getMatchStartTime();
+            LocalDateTime end = match.getMatchEndTime();
+            if (firstStart == null) firstStart = start;
+            if (lastEnd == null || end.isAfter(lastEnd)) lastEnd = end;
+            matchMinutes += Duration.between(start, end).toMinutes();
+
+            for (Team team : match.getTeamsInMatch()) {
+                TeamScheduleMetrics teamMetric = metricsByTeam.computeIfAbsent(
+                        team.getTeamId(), teamId -> new TeamScheduleMetrics(teamId, 0, 0, 0, 0));
+                teamMetric.setMatchCount(teamMetric.getMatchCount() + 1);
+
+                LocalDateTime previousEnd = lastMatchEnd.put(team.getTeamId(), end);
+                if (previousEnd == null) continue;
+
+                long idleMinutes = Math.max(0, Duration.between(previousEnd, start).toMinutes());
+                if (idleMinutes == 0) {
+                    teamMetric.setBackToBackCount(teamMetric.getBackToBackCount() + 1);
+                    backToBackCount++;
+                }
+                teamMetric.setTotalIdleMinutes(teamMetric.getTotalIdleMinutes() + idleMinutes);
+                teamMetric.setMaxIdleMinutes(Math.max(teamMetric.getMaxIdleMinutes(), idleMinutes));
+                totalIdleMinutes += idleMinutes;
+                maxIdleMinutes = Math.max(maxIdleMinutes, idleMinutes);
+            }
+        }
+
+        teamMetrics.addAll(metricsByTeam.values());
+        metrics = new ScheduleMetrics(
+                firstStart == null ? 0L : Duration.between(firstStart, lastEnd).toMinutes(),
+                timeslotMinutes == 0 ? 0.0 : (double) matchMinutes / timeslotMinutes,
+                backToBackCount,
+                totalIdleMinutes,
+                maxIdleMinutes);
+    }
+}
@@ -0,0 +1,54 @@
+package com.hairlesscat.app.schedule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.hairlesscat.app.view.Views;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Embeddable;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Restricts the timeslots of a schedule to a daily time window on some days of the week,
+ * e.g. 12:00 to 13:00 on weekdays.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleRecurrence {
+    @Convert(converter = DaysOfWeekConverter.class)
+    @Column(name = "recurrence_days_of_week")
+    @JsonProperty("days_of_week")
+    @JsonView(Views.ScheduleSummary.class)
+    private Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+
+    @Column(name = "recurrence_daily_start_time", columnDefinition = "time")
+    @JsonProperty("daily_start_time")
+    @JsonView(Views.ScheduleSummary.class)
+    private LocalTime dailyStartTime;
+
+    @Column(name = "recurrence_daily_end_time", columnDefinition = "time")
+    @JsonProperty("daily_end_time")
+    @JsonView(Views.ScheduleSummary.class)
+    private LocalTime dailyEndTime;
+
+    /**
+     * @throws IllegalArgumentException if the recurrence does not describe a non empty window on at least one day.
+     */
+    public void validate() {
+        if (daysOfWeek == null || daysOfWeek.isEmpty()) {
+            throw new IllegalArgumentException("A recurrence must have at least one day of the week.");
+        }
+        if (dailyStartTime == null || dailyEndTime == null || !dailyStartTime.isBefore(dailyEndTime)) {
+            throw new IllegalArgumentException("A recurrence must have a daily_start_time before its daily_end_time.");
+        }
+    }
+}
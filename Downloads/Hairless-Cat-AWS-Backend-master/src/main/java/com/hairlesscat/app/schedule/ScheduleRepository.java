@@ -1,6 +1,13 @@
 package com.hairlesscat.app.schedule;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
 
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
+
+    // Serialises the writers of the team availabilities of a schedule's timeslots until their transaction ends
+    @Query(value = "SELECT schedule_id FROM schedule WHERE schedule_id = ?1 FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<Long> lockSchedule(Long scheduleId);
 }
@@ -1,28 +1,55 @@
 package com.hairlesscat.app.schedule;
 
 import com.hairlesscat.app.algorithm.Algorithm;
+import com.hairlesscat.app.algorithm.AvailabilityMatrix;
 import com.hairlesscat.app.algorithm.ImperfectMatchingException;
 import com.hairlesscat.app.algorithm.MoreMatchesThanAvailableTimeslotsException;
+import com.hairlesscat.app.algorithm.RoundRobinSolution;
 import com.hairlesscat.app.match.Match;
 import com.hairlesscat.app.team.Team;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotGrid;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIndex;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIndexCache;
 import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslotRepository;
+import com.hairlesscat.app.util.LruCache;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.transaction.Transactional;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class ScheduleService {
+    private static final int SOLUTION_CACHE_SIZE = 128;
+    // Multiple of hibernate.jdbc.batch_size
+    public static final int MATCH_WRITE_CHUNK_SIZE = 500;
 
     private final ScheduleRepository scheduleRepository;
+    private final TournamentTimeslotRepository tournamentTimeslotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TimeslotIndexCache timeslotIndexCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Last solution computed for a schedule, keyed by schedule id. Only reused if the availability fingerprint still matches.
+    private final LruCache<Long, CachedSolution> solutionCache = new LruCache<>(SOLUTION_CACHE_SIZE);
 
     @Autowired
-    public ScheduleService(ScheduleRepository scheduleRepository) {
+    public ScheduleService(ScheduleRepository scheduleRepository, TournamentTimeslotRepository tournamentTimeslotRepository, ApplicationEventPublisher eventPublisher, TimeslotIndexCache timeslotIndexCache) {
         this.scheduleRepository = scheduleRepository;
+        this.tournamentTimeslotRepository = tournamentTimeslotRepository;
+        this.eventPublisher = eventPublisher;
+        this.timeslotIndexCache = timeslotIndexCache;
     }
 
     public void addTimeslotsToSchedule(Schedule schedule, List<TournamentTimeslot> timeslots) {
@@ -31,48 +58,273 @@ public class ScheduleService {
             t.setSchedule(schedule);
         }
         schedule.setTimeslots(timeslots);
+        timeslotIndexCache.invalidate(schedule);
+    }
+
+    /**
+     * @return the cached index of the schedule's timeslots.
+     */
+    public TimeslotIndex getTimeslotIndex(Schedule schedule) {
+        return timeslotIndexCache.get(schedule);
+    }
+
+    /**
+     * Persists the virtual timeslots at the given grid positions, unless they already are.
+     * <p>
+     * A grid position is stored at most once (unique schedule_id, slot_index). Concurrent requests for the same
+     * schedule are serialised on the schedule row, and the timeslots another request stored in the meantime are read
+     * back and added to {@code schedule} instead of being inserted again.
+     *
+     * @param schedule a schedule with virtual timeslots.
+     * @param slotIndices positions of the timeslots in the schedule's grid.
+     * @return the persisted timeslots, in the order of {@code slotIndices}.
+     * @throws IllegalArgumentException if a slot index is outside of the schedule.
+     */
+    @Transactional
+    public List<TournamentTimeslot> materialiseTimeslots(Schedule schedule, List<Integer> slotIndices) {
+        TimeslotGrid grid = TimeslotGrid.of(schedule);
+        for (Integer slotIndex : slotIndices) {
+            if (slotIndex == null || !grid.contains(slotIndex)) {
+                throw new IllegalArgumentException(String.format("Slot index %s is outside of the schedule [0, %d).", slotIndex, grid.size()));
+            }
+        }
+
+        Map<Integer, TournamentTimeslot> timeslotsByIndex = new HashMap<>();
+        for (TournamentTimeslot timeslot : schedule.getTimeslots()) {
+            if (timeslot.getSlotIndex() != null) {
+                timeslotsByIndex.put(timeslot.getSlotIndex(), timeslot);
+            }
+        }
+        Set<Integer> missingSlotIndices = new HashSet<>(slotIndices);
+        missingSlotIndices.removeAll(timeslotsByIndex.keySet());
+        if (missingSlotIndices.isEmpty()) {
+            return slotIndices.stream().map(timeslotsByIndex::get).toList();
+        }
+
+        scheduleRepository.lockSchedule(schedule.getScheduleId());
+        List<TournamentTimeslot> storedTimeslots = tournamentTimeslotRepository.findByScheduleIdAndSlotIndices(schedule.getScheduleId(), missingSlotIndices);
+        for (TournamentTimeslot timeslot : storedTimeslots) {
+            if (timeslotsByIndex.putIfAbsent(timeslot.getSlotIndex(), timeslot) == null) {
+                schedule.getTimeslots().add(timeslot);
+            }
+        }
+
+        List<TournamentTimeslot> newTimeslots = new ArrayList<>();
+        for (Integer slotIndex : missingSlotIndices) {
+            if (!timeslotsByIndex.containsKey(slotIndex)) {
+                TournamentTimeslot timeslot = grid.createTimeslot(slotIndex);
+                timeslot.setSchedule(schedule);
+                timeslotsByIndex.put(slotIndex, timeslot);
+                newTimeslots.add(timeslot);
+            }
+        }
+
+        schedule.getTimeslots().addAll(newTimeslots);
+        schedule = scheduleRepository.save(schedule);
+        // Same order as a reload of the schedule, so that the positions of a cached index stay valid
+        schedule.getTimeslots().sort(TournamentTimeslot.SCHEDULE_ORDER);
+        timeslotIndexCache.invalidate(schedule);
+        // save may return a copy, pick the persisted instances up by their slot index
+        for (TournamentTimeslot timeslot : schedule.getTimeslots()) {
+            if (timeslot.getSlotIndex() != null) {
+                timeslotsByIndex.put(timeslot.getSlotIndex(), timeslot);
+            }
+        }
+
+        return slotIndices.stream().map(timeslotsByIndex::get).toList();
     }
 
+    @Transactional
     public void addTeamToTimeslots(Schedule schedule, Team team, List<Long> timeslotIds) {
-        List<TournamentTimeslot> tournamentTimeslots = schedule.getTimeslots();
-
-        //TODO: optimise this process (we could use a map so that we don't need to do a n^2 loop
-        for (Long timeslotId : timeslotIds) {
-            for (TournamentTimeslot tournamentTimeslot : tournamentTimeslots) {
-                if (Objects.equals(tournamentTimeslot.getTimeslotId(), timeslotId)) {
-                    tournamentTimeslot.addTeam(team);
-                }
+        updateTeamTimeslots(schedule, team, timeslotIds, List.of());
+    }
+
+    /**
+     * Adds {@code team} to and removes it from timeslots of the schedule. Only the timeslots whose availability
+     * actually changes are written.
+     * <p>
+     * The team availabilities of a schedule are written with SQL relative to the stored rows, while holding a lock
+     * on the schedule row, so that concurrent writers for the same schedule are serialised and none of their changes
+     * are lost. The {@code availableTeams} of already loaded timeslots are not updated.
+     *
+     * @return whether the availability of the team changed.
+     * @throws IllegalArgumentException if one of the ids is not a timeslot of the schedule.
+     */
+    @Transactional
+    public boolean updateTeamTimeslots(Schedule schedule, Team team, Collection<Long> addedTimeslotIds, Collection<Long> removedTimeslotIds) {
+        TimeslotIndex index = timeslotIndexCache.get(schedule);
+        List<Long> added = index.getAll(schedule.getTimeslots(), addedTimeslotIds).stream().map(TournamentTimeslot::getTimeslotId).toList();
+        List<Long> removed = index.getAll(schedule.getTimeslots(), removedTimeslotIds).stream().map(TournamentTimeslot::getTimeslotId).toList();
+
+        scheduleRepository.lockSchedule(schedule.getScheduleId());
+        return writeTeamTimeslots(schedule, team, added, removed);
+    }
+
+    /**
+     * Makes {@code team} available for exactly the timeslots of the schedule whose id is in {@code timeslotIds},
+     * only adding and removing the team where its stored availability differs. See
+     * {@link #updateTeamTimeslots(Schedule, Team, Collection, Collection)} for how concurrent writers are handled.
+     *
+     * @return whether the availability of the team changed.
+     */
+    @Transactional
+    public boolean setTeamTimeslots(Schedule schedule, Team team, TimeslotIdRanges timeslotIds) {
+        scheduleRepository.lockSchedule(schedule.getScheduleId());
+        Set<Long> current = new HashSet<>(tournamentTimeslotRepository.findTimeslotIdsOfTeam(schedule.getScheduleId(), team.getTeamId()));
+
+        List<Long> added = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (TournamentTimeslot timeslot : schedule.getTimeslots()) {
+            Long timeslotId = timeslot.getTimeslotId();
+            if (timeslotId == null) continue;
+            boolean available = timeslotIds.contains(timeslotId);
+            if (available && !current.contains(timeslotId)) {
+                added.add(timeslotId);
+            } else if (!available && current.contains(timeslotId)) {
+                removed.add(timeslotId);
             }
         }
+        return writeTeamTimeslots(schedule, team, added, removed);
+    }
 
-        scheduleRepository.save(schedule);
+    private boolean writeTeamTimeslots(Schedule schedule, Team team, List<Long> added, List<Long> removed) {
+        List<Long> addedIds = added.isEmpty() ? List.of() : tournamentTimeslotRepository.addTeam(schedule.getScheduleId(), added, team.getTeamId());
+        List<Long> removedIds = removed.isEmpty() ? List.of() : tournamentTimeslotRepository.removeTeam(schedule.getScheduleId(), removed, team.getTeamId());
+        publishTeamAvailabilityChanged(schedule, team, addedIds, removedIds);
+        return !addedIds.isEmpty() || !removedIds.isEmpty();
+    }
+
+    private void publishTeamAvailabilityChanged(Schedule schedule, Team team, List<Long> addedIds, List<Long> removedIds) {
+        if (addedIds.isEmpty() && removedIds.isEmpty()) return;
+        eventPublisher.publishEvent(new TeamAvailabilityChangedEvent(
+                schedule.getScheduleId(),
+                team.getTeamId(),
+                TimeslotIdRanges.fromIds(addedIds),
+                TimeslotIdRanges.fromIds(removedIds)));
+    }
+
+    @EventListener
+    public void onTeamAvailabilityChanged(TeamAvailabilityChangedEvent event) {
+        if (event.scheduleId() != null) {
+            solutionCache.remove(event.scheduleId());
+        }
     }
 
     public boolean validateTimeslotIds(Schedule schedule, Collection<Long> timeslotIds) {
-        for (Long timeslotId : timeslotIds) {
-            boolean isValid = false;
-
-            for (TournamentTimeslot tournamentTimeslot : schedule.getTimeslots()) {
-                if (Objects.equals(tournamentTimeslot.getTimeslotId(), timeslotId)) {
-                    isValid = true;
-                    break;
-                }
+        return timeslotIndexCache.get(schedule).containsAll(timeslotIds);
+    }
+
+    /**
+     * Persists the generated matches of the schedule, see {@link #persistMatches(List)}.
+     * <p>
+     * The matches are only added to {@code schedule.getMatches()} if that collection is already loaded, otherwise
+     * they are detached after being written. Use {@link #setScheduleSuccess(Schedule, Collection)} to compute the
+     * schedule metrics from {@code matches}.
+     */
+    @Transactional
+    public Schedule addMatchesToSchedule(Schedule schedule, List<Match> matches) {
+        matches.forEach(match -> match.setSchedule(schedule));
+        boolean matchesLoaded = schedule.getMatches() != null && Hibernate.isInitialized(schedule.getMatches());
+        persistMatches(matches, !matchesLoaded);
+        if (matchesLoaded) {
+            schedule.getMatches().addAll(matches);
+        }
+        return schedule;
+    }
+
+    /**
+     * Persists new matches in chunks of {@link #MATCH_WRITE_CHUNK_SIZE}. Every chunk is flushed, which Hibernate
+     * sends as JDBC batches, and then detached so that the persistence context and the cost of dirty checking do
+     * not grow with the number of matches.
+     *
+     * @param matches new matches, with their tournament, schedule and teams set.
+     */
+    @Transactional
+    public void persistMatches(List<Match> matches) {
+        persistMatches(matches, true);
+    }
+
+    private void persistMatches(List<Match> matches, boolean detach) {
+        for (int start = 0; start < matches.size(); start += MATCH_WRITE_CHUNK_SIZE) {
+            List<Match> chunk = matches.subList(start, Math.min(start + MATCH_WRITE_CHUNK_SIZE, matches.size()));
+            chunk.forEach(entityManager::persist);
+            entityManager.flush();
+            if (detach) {
+                chunk.forEach(entityManager::detach);
             }
+        }
+    }
+
+    /**
+     * Runs the scheduling algorithm on the schedule's timeslots. The matching computed for a schedule is cached
+     * together with the fingerprint of its availabilities, so generating again on unchanged inputs
+     * (e.g. after a failure) does not solve the matching again. An imperfect matching is cached like any other, and
+     * fails again in {@link Algorithm#toMatches} without being solved.
+     * <p>
+     * The orderings used by the matching are shuffled with the schedule's seed, which is assigned on the first
+     * run if the schedule does not have one yet. The same seed and availabilities always give the same matches.
+     *
+     * @param slotsPerMatch number of consecutive timeslots a match occupies.
+     */
+    public List<Match> generateMatchSchedule(Schedule schedule, List<Team> teams, int slotsPerMatch) throws ImperfectMatchingException, MoreMatchesThanAvailableTimeslotsException {
+        assignSeedIfMissing(schedule);
+        AvailabilityMatrix matrix = AvailabilityMatrix.fromTimeslots(schedule.getTimeslots(), teams);
+        RoundRobinSolution solution = solve(schedule.getScheduleId(), schedule.getScheduleSeed(), matrix, slotsPerMatch);
+        return Algorithm.toMatches(matrix, solution, teams);
+    }
 
-            if (!isValid) return false;
+    public void assignSeedIfMissing(Schedule schedule) {
+        if (schedule.getScheduleSeed() == null) {
+            schedule.setScheduleSeed(ThreadLocalRandom.current().nextLong());
         }
-        return true;
     }
 
-    public Schedule addMatchesToSchedule(Schedule schedule, List<Match> matches) {
-        for (Match match : matches) {
-            schedule.getMatches().add(match);
+    /**
+     * Solves the matching of an availability matrix, going through the solution cache of the schedule. Inputs with
+     * more pairings than timeslots are cached too, and throw the same error again without being checked.
+     * Does not touch any entity, so it can be called from worker threads.
+     *
+     * @param scheduleId id of the schedule the matrix was built from, or {@code null} to bypass the cache.
+     * @param seed the schedule seed.
+     * @param matrix the availability matrix.
+     * @param slotsPerMatch number of consecutive timeslots a match occupies.
+     * @return the (possibly imperfect) matching.
+     * @throws MoreMatchesThanAvailableTimeslotsException if number of matches required exceeds the number of timeslots provided.
+     */
+    public RoundRobinSolution solve(Long scheduleId, Long seed, AvailabilityMatrix matrix, int slotsPerMatch) throws MoreMatchesThanAvailableTimeslotsException {
+        // The seed and match length change the solution, so they are part of the cache key
+        String fingerprint = matrix.fingerprint() + ":" + seed + ":" + slotsPerMatch;
+
+        if (scheduleId != null) {
+            Optional<CachedSolution> cached = solutionCache
+                    .get(scheduleId)
+                    .filter(cachedSolution -> cachedSolution.fingerprint().equals(fingerprint));
+            if (cached.isPresent()) {
+                if (cached.get().error() != null) throw cached.get().error();
+                return cached.get().solution();
+            }
+        }
+
+        RoundRobinSolution solution;
+        try {
+            solution = Algorithm.solveRR(matrix, seed, slotsPerMatch);
+        } catch (MoreMatchesThanAvailableTimeslotsException e) {
+            // Infeasible inputs are retried as often as feasible ones, so the error is cached the same way
+            if (scheduleId != null) {
+                solutionCache.put(scheduleId, new CachedSolution(fingerprint, null, e));
+            }
+            throw e;
         }
-        return scheduleRepository.save(schedule);
+        if (scheduleId != null) {
+            solutionCache.put(scheduleId, new CachedSolution(fingerprint, solution, null));
+        }
+        return solution;
     }
 
-    public List<Match> generateMatchSchedule(Schedule schedule, List<Team> teams) throws ImperfectMatchingException, MoreMatchesThanAvailableTimeslotsException {
-        return Algorithm.genRRMatches(schedule.getTimeslots(), teams);
+    public void evictCachedSolution(Schedule schedule) {
+        if (schedule.getScheduleId() != null) {
+            solutionCache.remove(schedule.getScheduleId());
+        }
     }
 
     public void setScheduleError(Schedule schedule, String errorMsg) {
@@ -81,10 +333,42 @@ public class ScheduleService {
     }
 
     public void setScheduleSuccess(Schedule schedule) {
+        setScheduleSuccess(schedule, schedule.getMatches());
+    }
+
+    public void setScheduleSuccess(Schedule schedule, Collection<Match> matches) {
         schedule.setScheduleStatusSuccess();
+        updateScheduleMetrics(schedule, matches, schedule.getTimeslots());
         scheduleRepository.save(schedule);
     }
 
+    /**
+     * Recomputes the quality metrics of the schedule from its matches.
+     */
+    public void updateScheduleMetrics(Schedule schedule) {
+        updateScheduleMetrics(schedule, schedule.getMatches(), schedule.getTimeslots());
+    }
+
+    /**
+     * Recomputes the quality metrics of the schedule from already loaded matches and timeslots.
+     */
+    public void updateScheduleMetrics(Schedule schedule, Collection<Match> matches, Collection<TournamentTimeslot> timeslots) {
+        long timeslotMinutes = 0;
+        if (schedule.isVirtualTimeslots()) {
+            // Only the timeslots that are needed are persisted, count the whole grid
+            timeslotMinutes = TimeslotGrid.of(schedule).totalMinutes();
+        } else {
+            for (TournamentTimeslot timeslot : timeslots) {
+                timeslotMinutes += Duration.between(timeslot.getStartTime(), timeslot.getEndTime()).toMinutes();
+            }
+        }
+
+        ScheduleMetricsCalculator calculator = ScheduleMetricsCalculator.compute(matches, timeslotMinutes);
+        schedule.setMetrics(calculator.getMetrics());
+        schedule.getTeamMetrics().clear();
+        schedule.getTeamMetrics().addAll(calculator.getTeamMetrics());
+    }
+
     public List<Match> getMatches(Schedule schedule) throws ScheduleNotStartedException, ScheduleErrorException {
         if (schedule.hasNotStartedScheduling()) {
             throw new ScheduleNotStartedException();
@@ -95,9 +379,17 @@ public class ScheduleService {
         }
     }
 
+    /**
+     * Removes every team from the timeslots of the schedule, see
+     * {@link #updateTeamTimeslots(Schedule, Team, Collection, Collection)}.
+     */
     @Transactional
     public void resetTeamAvailabilities(Schedule schedule) {
-        List<TournamentTimeslot> timeslots = schedule.getTimeslots();
-        timeslots.forEach(timeslot -> timeslot.setAvailableTeams(new ArrayList<>()));
+        scheduleRepository.lockSchedule(schedule.getScheduleId());
+        tournamentTimeslotRepository.clearTeams(schedule.getScheduleId());
+        evictCachedSolution(schedule);
     }
+
+    // Either the solution, which may be an imperfect matching, or the error the inputs gave
+    private record CachedSolution(String fingerprint, RoundRobinSolution solution, MoreMatchesThanAvailableTimeslotsException error) {}
 }
@@ -0,0 +1,11 @@
+package com.hairlesscat.app.schedule;
+
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+
+/**
+ * Published when the timeslots a team is available for change on a schedule.
+ *
+ * @param added the timeslots the team became available for.
+ * @param removed the timeslots the team is no longer available for.
+ */
+public record TeamAvailabilityChangedEvent(Long scheduleId, Long teamId, TimeslotIdRanges added, TimeslotIdRanges removed) {}
@@ -0,0 +1,45 @@
+package com.hairlesscat.app.schedule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.hairlesscat.app.view.Views;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+/**
+ * Quality metrics of a generated schedule for a single team, see {@link ScheduleMetricsCalculator}.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamScheduleMetrics {
+    @Column(name = "team_id")
+    @JsonProperty("team_id")
+    @JsonView(Views.ScheduleExtended.class)
+    private Long teamId;
+
+    @Column(name = "match_count")
+    @JsonProperty("match_count")
+    @JsonView(Views.ScheduleExtended.class)
+    private int matchCount;
+
+    @Column(name = "back_to_back_count")
+    @JsonProperty("back_to_back_count")
+    @JsonView(Views.ScheduleExtended.class)
+    private int backToBackCount;
+
+    @Column(name = "total_idle_minutes")
+    @JsonProperty("total_idle_minutes")
+    @JsonView(Views.ScheduleExtended.class)
+    private long totalIdleMinutes;
+
+    @Column(name = "max_idle_minutes")
+    @JsonProperty("max_idle_minutes")
+    @JsonView(Views.ScheduleExtended.class)
+    private long maxIdleMinutes;
+}
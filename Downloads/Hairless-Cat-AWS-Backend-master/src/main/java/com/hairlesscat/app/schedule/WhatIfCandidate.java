@@ -0,0 +1,25 @@
+package com.hairlesscat.app.schedule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A candidate schedule configuration to be evaluated by the what-if endpoint. Nothing is persisted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhatIfCandidate {
+    @JsonProperty("tournament_start_time")
+    private LocalDateTime tournamentStartTime;
+
+    @JsonProperty("tournament_end_time")
+    private LocalDateTime tournamentEndTime;
+
+    @JsonProperty("slot_duration_minutes")
+    private Integer slotDurationMinutes = 30;
+}
@@ -0,0 +1,46 @@
+package com.hairlesscat.app.schedule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Feasibility of a {@link WhatIfCandidate}: how many of the required round robin matches can be given a timeslot,
+ * and which teams keep the remaining matches from being scheduled.
+ */
+@Data
+@AllArgsConstructor
+public class WhatIfResult {
+    @JsonProperty("candidate")
+    private WhatIfCandidate candidate;
+
+    @JsonProperty("num_timeslots")
+    private int numTimeslots;
+
+    @JsonProperty("required_matches")
+    private int requiredMatches;
+
+    @JsonProperty("max_matching_size")
+    private int maxMatchingSize;
+
+    @JsonProperty("feasible")
+    private boolean feasible;
+
+    @JsonProperty("bottleneck_teams")
+    private List<BottleneckTeam> bottleneckTeams;
+
+    @JsonProperty("availability_fingerprint")
+    private String availabilityFingerprint;
+
+    @Data
+    @AllArgsConstructor
+    public static class BottleneckTeam {
+        @JsonProperty("team_id")
+        private long teamId;
+
+        @JsonProperty("unscheduled_matches")
+        private int unscheduledMatches;
+    }
+}
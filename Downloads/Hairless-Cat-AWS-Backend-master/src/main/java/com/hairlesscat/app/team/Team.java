@@ -1,8 +1,10 @@
 package com.hairlesscat.app.team;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.hairlesscat.app.match.Match;
+import com.hairlesscat.app.match.MatchParticipant;
 import com.hairlesscat.app.result.Result;
 import com.hairlesscat.app.teammember.TeamMember;
 import com.hairlesscat.app.tournament.Tournament;
@@ -11,12 +13,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 
 @Entity()
@@ -25,6 +30,7 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 public class Team {
     @Id
     @SequenceGenerator(
@@ -64,23 +70,55 @@ public class Team {
     @JsonView(Views.TeamMembers.class)
     Set<TeamMember> teamMembers = new HashSet<>();
 
-    @ManyToMany(mappedBy = "rankedTeam", cascade = CascadeType.ALL)
-    @JsonView(Views.TeamFull.class)
-    private List<Result> results;
-
-    @ManyToMany(mappedBy = "teamsInMatch", cascade = CascadeType.PERSIST)
-    @JsonView(Views.TeamFull.class)
-    private List<Match> matches;
+    // The matches of the team, see MatchParticipant
+    @OneToMany(mappedBy = "team")
+    @JsonIgnore
+    @ToString.Exclude
+    @Builder.Default
+    private List<MatchParticipant> participations = new ArrayList<>();
 
+    /**
+     * Teams are equal if they are the same row. A team that has not been persisted yet is only equal to itself.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Team)) return false;
         Team team = (Team) o;
-        return Objects.equals(teamId, team.teamId) && Objects.equals(tournament.getTournamentId(), team.tournament.getTournamentId()) && Objects.equals(teamName, team.teamName);
+        return teamId != null && teamId.equals(team.getTeamId());
+    }
+
+    /**
+     * Does not depend on the id, so that the hash code of a team does not change when it is persisted while being
+     * held in a hash based collection.
+     */
+    @Override
+    public int hashCode() {
+        return Team.class.hashCode();
     }
 
 
+    @JsonView(Views.TeamFull.class)
+    public List<Match> getMatches() {
+        List<Match> matches = new ArrayList<>(participations.size());
+        participations.forEach(participation -> matches.add(participation.getMatch()));
+        return matches;
+    }
+
+    /**
+     * @return the results of the matches in which the team is ranked.
+     */
+    @JsonView(Views.TeamFull.class)
+    public List<Result> getResults() {
+        List<Result> results = new ArrayList<>();
+        for (MatchParticipant participation : participations) {
+            if (participation.getRank() != null && participation.getMatch().getResult() != null) {
+                results.add(participation.getMatch().getResult());
+            }
+        }
+        return results;
+    }
+
     public void addTeamMember(TeamMember teamMember) {
         teamMembers.add(teamMember);
     }
@@ -0,0 +1,104 @@
+package com.hairlesscat.app.team;
+
+import com.hairlesscat.app.schedule.Schedule;
+import com.hairlesscat.app.schedule.ScheduleService;
+import com.hairlesscat.app.teammember.MemberAvailabilityChangedEvent;
+import com.hairlesscat.app.teammember.TeamMember;
+import com.hairlesscat.app.tournament.Tournament;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIndex;
+import com.hairlesscat.app.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the team availabilities of the tournament timeslots in line with the availabilities of the team members.
+ * <p>
+ * A {@link TeamAvailabilityTally} is kept per team and every member availability change is applied to it as the
+ * timeslots it adds and removes. Only the timeslots whose team availability flips are written. Once every member has
+ * indicated availability, the team is made available for the timeslots enough members can play in, which is what
+ * {@code POST /teams/actions/post_team_availabilities/{team_id}} does on request.
+ * <p>
+ * The availabilities aggregated from the members win over the ones set on the team directly: the team endpoints
+ * {@link #evict} the tally, and the next member availability change of the team then recounts it and writes every
+ * timeslot of the schedule.
+ */
+@Service
+public class TeamAvailabilityAggregator {
+    private static final int TALLY_CACHE_SIZE = 1024;
+
+    private final TeamService teamService;
+    private final ScheduleService scheduleService;
+    private final LruCache<Long, TeamAvailabilityTally> tallies = new LruCache<>(TALLY_CACHE_SIZE);
+
+    @Autowired
+    public TeamAvailabilityAggregator(TeamService teamService, ScheduleService scheduleService) {
+        this.teamService = teamService;
+        this.scheduleService = scheduleService;
+    }
+
+    /**
+     * Applies the change to the tally of the team and updates the team availabilities of the tournament timeslots:
+     * the timeslots enough members can play in if the team is complete, none otherwise. The tally is rebuilt from the
+     * stored member availabilities, and every timeslot written, if it is missing, out of date or does not follow the
+     * change. Calls for the same team must not run concurrently, calls for teams of the same schedule are serialised
+     * by {@link ScheduleService}.
+     *
+     * @return whether the team availabilities of the timeslots changed.
+     */
+    @Transactional
+    public boolean aggregate(MemberAvailabilityChangedEvent event) {
+        Long teamId = event.teamId();
+        Optional<Team> optionalTeam = teamService.getTeamById(teamId);
+        Tournament tournament = optionalTeam.map(Team::getTournament).orElse(null);
+        if (tournament == null || tournament.getSchedule() == null) {
+            tallies.remove(teamId);
+            return false;
+        }
+        Team team = optionalTeam.get();
+        Schedule schedule = tournament.getSchedule();
+
+        // The matches of a scheduled tournament are not changed
+        if (schedule.isScheduled()) return false;
+
+        // Same conditions as the manual endpoint. A team that no longer meets them, e.g. because a member cleared
+        // their availability, is not available at all rather than keeping its previous timeslots.
+        Set<TeamMember> members = team.getTeamMembers();
+        int minNumberOfPlayersRequired = tournament.getTournamentParameter().getMinNumberOfPlayersPerTeam();
+        boolean complete = members.size() >= minNumberOfPlayersRequired && teamService.validateAllTeamMembersIndicatedAvailabilities(members);
+
+        TimeslotIndex index = scheduleService.getTimeslotIndex(schedule);
+        Set<String> userIds = members.stream().map(member -> member.getUser().getUserId()).collect(Collectors.toSet());
+        TeamAvailabilityTally tally = tallies.get(teamId).orElse(null);
+        BitSet before = tally == null ? null : tally.available();
+        if (tally == null || !tally.isFor(index, userIds, minNumberOfPlayersRequired) || !tally.apply(event.userId(), event.added(), event.removed())) {
+            // The stored member availabilities already include this change
+            tally = TeamAvailabilityTally.of(index, schedule.getTimeslots(), members, minNumberOfPlayersRequired);
+            tally.setComplete(complete);
+            tallies.put(teamId, tally);
+            return scheduleService.setTeamTimeslots(schedule, team, TimeslotIdRanges.fromIds(tally.timeslotIdsAt(tally.available())));
+        }
+        tally.setComplete(complete);
+
+        BitSet after = tally.available();
+        BitSet added = (BitSet) after.clone();
+        added.andNot(before);
+        BitSet removed = before;
+        removed.andNot(after);
+        if (added.isEmpty() && removed.isEmpty()) return false;
+        return scheduleService.updateTeamTimeslots(schedule, team, tally.timeslotIdsAt(added), tally.timeslotIdsAt(removed));
+    }
+
+    /**
+     * Drops the tally of the team, the next change of a member availability recounts it.
+     */
+    public void evict(Long teamId) {
+        tallies.remove(teamId);
+    }
+}
@@ -0,0 +1,46 @@
+package com.hairlesscat.app.team;
+
+import com.hairlesscat.app.teammember.MemberAvailabilityChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Aggregates the team availability in the background once a member availability change is committed.
+ */
+@Component
+public class TeamAvailabilityListener {
+    private static final Logger log = LoggerFactory.getLogger(TeamAvailabilityListener.class);
+    private static final int NUM_LOCKS = 64;
+
+    private final TeamAvailabilityAggregator aggregator;
+    // Serialises the aggregations of a team, including their commit, without one lock object per team. Aggregations of
+    // different teams of a schedule are serialised by the schedule row lock taken by ScheduleService.
+    private final Object[] teamLocks = new Object[NUM_LOCKS];
+
+    @Autowired
+    public TeamAvailabilityListener(TeamAvailabilityAggregator aggregator) {
+        this.aggregator = aggregator;
+        for (int i = 0; i < NUM_LOCKS; i++) {
+            teamLocks[i] = new Object();
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMemberAvailabilityChanged(MemberAvailabilityChangedEvent event) {
+        synchronized (teamLocks[Math.floorMod(event.teamId().hashCode(), NUM_LOCKS)]) {
+            try {
+                aggregator.aggregate(event);
+            } catch (RuntimeException e) {
+                // The next change recounts the team from the stored member availabilities, or the manual endpoint aggregates it
+                aggregator.evict(event.teamId());
+                log.warn("Failed to aggregate the availabilities of team {}", event.teamId(), e);
+            }
+        }
+    }
+}
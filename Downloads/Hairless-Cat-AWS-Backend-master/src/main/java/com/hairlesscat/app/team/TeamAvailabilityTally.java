@@ -0,0 +1,113 @@
+package com.hairlesscat.app.team;
+
+import com.hairlesscat.app.teammember.TeamMember;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIndex;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
+import com.hairlesscat.app.util.BitSlicedCounter;
+
+import java.util.*;
+
+/**
+ * Number of members of a team that indicated availability for each timeslot of the team's schedule, counted in a
+ * {@link BitSlicedCounter} over the positions of the schedule's {@link TimeslotIndex}. A change of the availability
+ * of a member is applied as the added and removed timeslots of the change instead of being recounted.
+ * <p>
+ * The tally is only valid for the index and the members it was built with, see {@link #isFor}. Not thread safe.
+ */
+class TeamAvailabilityTally {
+    private final TimeslotIndex index;
+    // Timeslot id at every position of the index, -1 for timeslots that were not persisted
+    private final long[] timeslotIds;
+    private final int minNumberOfMembers;
+    private final Map<String, TimeslotIdRanges> memberRanges = new HashMap<>();
+    private final BitSlicedCounter memberCounts;
+    private boolean complete;
+
+    private TeamAvailabilityTally(TimeslotIndex index, List<TournamentTimeslot> timeslots, int numMembers, int minNumberOfMembers) {
+        this.index = index;
+        this.timeslotIds = new long[timeslots.size()];
+        for (int position = 0; position < timeslots.size(); position++) {
+            Long timeslotId = timeslots.get(position).getTimeslotId();
+            timeslotIds[position] = timeslotId == null ? -1 : timeslotId;
+        }
+        this.minNumberOfMembers = minNumberOfMembers;
+        this.memberCounts = new BitSlicedCounter(timeslots.size(), numMembers);
+    }
+
+    /**
+     * Counts the stored availabilities of the members. Timeslots that are not in {@code index} are ignored.
+     *
+     * @param timeslots the timeslot list {@code index} is valid for.
+     */
+    static TeamAvailabilityTally of(TimeslotIndex index, List<TournamentTimeslot> timeslots, Collection<TeamMember> members, int minNumberOfMembers) {
+        TeamAvailabilityTally tally = new TeamAvailabilityTally(index, timeslots, members.size(), minNumberOfMembers);
+        for (TeamMember member : members) {
+            TimeslotIdRanges ranges = member.getUserIndicatedTimeslotRanges();
+            tally.memberRanges.put(member.getUser().getUserId(), ranges);
+            tally.memberCounts.add(tally.positionsOf(ranges));
+        }
+        return tally;
+    }
+
+    /**
+     * @return whether the tally counts the members {@code userIds} over the positions of {@code index}.
+     */
+    boolean isFor(TimeslotIndex index, Set<String> userIds, int minNumberOfMembers) {
+        return this.index == index && this.minNumberOfMembers == minNumberOfMembers && memberRanges.keySet().equals(userIds);
+    }
+
+    /**
+     * Applies a change of the availability of a member.
+     *
+     * @return {@code false}, without changing the tally, if the change does not follow the availability the tally
+     * holds for the member (e.g. a change that was applied already, or one that arrived before an earlier change),
+     * or if it refers to a timeslot that is not in the index. The tally must then be rebuilt.
+     */
+    boolean apply(String userId, TimeslotIdRanges added, TimeslotIdRanges removed) {
+        TimeslotIdRanges previous = memberRanges.get(userId);
+        if (previous == null || !previous.intersection(added).isEmpty() || !removed.difference(previous).isEmpty()) {
+            return false;
+        }
+        for (long timeslotId : added.toArray()) {
+            if (!index.contains(timeslotId)) return false;
+        }
+
+        memberCounts.add(positionsOf(added));
+        memberCounts.remove(positionsOf(removed));
+        memberRanges.put(userId, previous.union(added).difference(removed));
+        return true;
+    }
+
+    /**
+     * @param complete whether the team meets the conditions to be available at all, see {@link #available()}.
+     */
+    void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    /**
+     * @return the positions the team is available for: the timeslots at least the minimum number of members are
+     * available for if the team is complete, none otherwise.
+     */
+    BitSet available() {
+        return complete ? memberCounts.atLeast(Math.max(1, minNumberOfMembers)) : new BitSet();
+    }
+
+    List<Long> timeslotIdsAt(BitSet positions) {
+        List<Long> ids = new ArrayList<>(positions.cardinality());
+        for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+            ids.add(timeslotIds[position]);
+        }
+        return ids;
+    }
+
+    private BitSet positionsOf(TimeslotIdRanges ranges) {
+        BitSet positions = new BitSet(timeslotIds.length);
+        for (long timeslotId : ranges.toArray()) {
+            int position = index.positionOf(timeslotId);
+            if (position != -1) positions.set(position);
+        }
+        return positions;
+    }
+}
@@ -1,7 +1,10 @@
 package com.hairlesscat.app.team;
 
 import com.fasterxml.jackson.annotation.JsonView;
+import com.hairlesscat.app.schedule.Schedule;
 import com.hairlesscat.app.schedule.ScheduleService;
+import com.hairlesscat.app.teammember.AvailabilityDelta;
+import com.hairlesscat.app.teammember.MemberAvailabilitySubmission;
 import com.hairlesscat.app.teammember.TeamMember;
 import com.hairlesscat.app.teammember.TeamMemberService;
 import com.hairlesscat.app.tournament.Tournament;
@@ -9,6 +12,7 @@ import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
 import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslotService;
 import com.hairlesscat.app.user.User;
 import com.hairlesscat.app.user.UserService;
+import com.hairlesscat.app.util.KeysetPage;
 import com.hairlesscat.app.util.ResponseWrapper;
 import com.hairlesscat.app.view.Views;
 import com.hairlesscat.app.validation.MissingFieldsException;
@@ -29,47 +33,51 @@ public class TeamController {
 	private final TeamMemberService teamMemberService;
 	private final ScheduleService scheduleService;
 	private final TournamentTimeslotService tournamentTimeslotService;
+	private final TeamAvailabilityAggregator teamAvailabilityAggregator;
 
 	@Autowired
-	public TeamController(TeamService teamService, UserService userService, TeamMemberService teamMemberService, ScheduleService scheduleService, TournamentTimeslotService tournamentTimeslotService) {
+	public TeamController(TeamService teamService, UserService userService, TeamMemberService teamMemberService, ScheduleService scheduleService, TournamentTimeslotService tournamentTimeslotService, TeamAvailabilityAggregator teamAvailabilityAggregator) {
 		this.teamService = teamService;
 		this.userService = userService;
 		this.teamMemberService = teamMemberService;
 		this.scheduleService = scheduleService;
 		this.tournamentTimeslotService = tournamentTimeslotService;
+		this.teamAvailabilityAggregator = teamAvailabilityAggregator;
 	}
 
     @GetMapping()
     @JsonView(Views.TeamExtended.class)
-    public Map<String, List<Team>> getTeams(
+    public Map<String, Object> getTeams(
             @RequestParam(value = "user_id", required = false) String userId,
-            @RequestParam(value = "tournament_id", required = false) Long tournamentId) {
+            @RequestParam(value = "tournament_id", required = false) Long tournamentId,
+            @RequestParam(value = "cursor", defaultValue = "0") long cursor,
+            @RequestParam(value = "size", defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size) {
 
-        List<Team> teams;
-        if (userId == null && tournamentId == null) {
-            teams = teamService.getTeams();
-        } else if (userId != null && tournamentId != null) {
+        if (userId != null && tournamentId != null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ambiguous request. Please only provide one of user_id or tournament_id.");
-        } else if (userId != null) {
+        }
+        if (userId != null) {
             if (userId.isBlank()) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provided user_id cannot be empty.");
             }
             if (!userService.validateUser(userId)) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No user found with id " + userId);
             }
-            List<Long> teamIds = teamMemberService.findAllTeamIdsByUserId(userId);
-            teams = new ArrayList<>();
-            teamIds.stream()
-                    .map(teamService::getTeamById)
-                    .map(optionalTeam -> optionalTeam
-                            .orElseThrow(() -> new ResponseStatusException(
-                                    HttpStatus.INTERNAL_SERVER_ERROR,
-                                    "Something went wrong with the database. Check with the administrator. Error: User is supposed to belong to a team but the team does not exist in the team database.")))
-                    .forEach(teams::add);
-        } else {
-            teams = teamService.getTeamsOfTournament(tournamentId);
         }
-        return ResponseWrapper.wrapResponse("teams", teams);
+
+        List<Team> teams;
+        try {
+            if (userId != null) {
+                teams = teamService.getTeamsOfMember(userId, cursor, size);
+            } else if (tournamentId != null) {
+                teams = teamService.getTeamsOfTournament(tournamentId, cursor, size);
+            } else {
+                teams = teamService.getTeams(cursor, size);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return KeysetPage.wrapResponse("teams", teams, size, Team::getTeamId);
     }
 
 
@@ -181,13 +189,21 @@ public class TeamController {
 					String.format("User with user id %s not found in team with id %d", userId, teamId));
 		}
 
-		List<Long> timeslots = teamMemberService.findTimeslotIdsByUserIdTeamId(userId, teamId);
-		List<TournamentTimeslot> tournamentTimeslots = new ArrayList<>();
-		for (Long ts: timeslots){
-			TournamentTimeslot tts = tournamentTimeslotService.getTournamentTimeslotsById(ts)
-				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No team found with id ." + teamId));
+		TeamMember teamMember = team.getTeamMembers()
+				.stream()
+				.filter(member -> member.getUser().getUserId().equals(userId))
+				.findFirst()
+				.orElseThrow();
+		Schedule schedule = getScheduleOfTeam(team);
 
-			tournamentTimeslots.add(tts);
+		// Resolve the ids against the already loaded timeslots of the tournament instead of one query per id
+		List<TournamentTimeslot> tournamentTimeslots;
+		try {
+			tournamentTimeslots = scheduleService
+					.getTimeslotIndex(schedule)
+					.getAll(schedule.getTimeslots(), teamMember.getUserIndicatedTimeslotRanges().toList());
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
 		}
 
 		return ResponseEntity.ok(ResponseWrapper.wrapResponse("timeslots", tournamentTimeslots));
@@ -232,7 +248,7 @@ public class TeamController {
 
 		Set<Long> tournamentTimeslotIds = requestBody.get("timeslot_ids");
 
-		if (!scheduleService.validateTimeslotIds(team.getTournament().getSchedule(), tournamentTimeslotIds)) {
+		if (!scheduleService.validateTimeslotIds(getScheduleOfTeam(team), tournamentTimeslotIds)) {
 			return ResponseEntity
 					.badRequest()
 					.body("One or more timeslot ids provided do not correspond to the timeslots in tournament.");
@@ -245,6 +261,55 @@ public class TeamController {
 		}
 	}
 
+	/**
+	 * Adds timeslots to and removes timeslots from the availability of a member, e.g.
+	 * {@code {"add": [12], "remove": [11]}} to move one slot.
+	 */
+	@PatchMapping(path = "{team_id}/member_availabilities/{user_id}")
+	public ResponseEntity<String> updateMemberAvailabilities(
+		@PathVariable(value = "team_id") Long teamId,
+		@PathVariable(value = "user_id") String userId,
+		@RequestBody AvailabilityDelta delta) {
+
+		if (delta.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Must provide timeslot ids to add or remove.");
+		}
+
+		Team team = teamService
+			.getTeamById(teamId)
+			.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No team found with id " + teamId));
+
+		TeamMember teamMember = teamMemberService.getTeamMemberByUserIdTeamId(userId, teamId)
+			.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Team does not contain user with id %s", userId)));
+
+		try {
+			teamMemberService.updateMemberAvailabilities(teamMember, delta, scheduleService.getTimeslotIndex(getScheduleOfTeam(team)));
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+		return ResponseEntity.ok("Member availabilities updated for user with id " + userId);
+	}
+
+	/**
+	 * Sets the availabilities of many members at once, e.g. of a whole team or of every team of a tournament.
+	 * Either all availabilities are set, or none if any submission is invalid.
+	 */
+	@PostMapping(path = "actions/post_member_availabilities")
+	public ResponseEntity<Map<String, Integer>> setMemberAvailabilities(@RequestBody Map<String, List<MemberAvailabilitySubmission>> requestBody) {
+		try {
+			Validator.requestBodyTopLevelFieldValidation(List.of("availabilities"), requestBody.keySet());
+		} catch (MissingFieldsException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+
+		try {
+			int numUpdated = teamMemberService.setMemberAvailabilities(requestBody.get("availabilities"));
+			return ResponseEntity.ok(ResponseWrapper.wrapResponse("num_member_availabilities_set", numUpdated));
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
+
 	@GetMapping("{team_id}/team_availabilities")
 	@JsonView(Views.Timeslot.class)
 	public ResponseEntity<Map<String, List<TournamentTimeslot>>> getAllTimeslotsOfTeam(@PathVariable(value = "team_id") Long teamId){
@@ -261,6 +326,49 @@ public class TeamController {
 		return ResponseEntity.ok(ResponseWrapper.wrapResponse("timeslots", teamTimeslots));
 	}
 
+	/**
+	 * Adds timeslots to and removes timeslots from the availability of a team. Only the team leader, given as
+	 * {@code user_id}, may do so. The next change of a member availability of the team replaces the team
+	 * availability with the one aggregated from the members, see {@link TeamAvailabilityAggregator}.
+	 */
+	@PatchMapping(path = "{team_id}/team_availabilities")
+	public ResponseEntity<String> updateTeamAvailabilities(
+		@PathVariable(value = "team_id") Long teamId,
+		@RequestBody AvailabilityDelta delta) {
+
+		if (delta.getUserId() == null || delta.getUserId().isBlank()) {
+			return ResponseEntity.badRequest().body("Must provide the user id of the user initiating the request.");
+		}
+		if (delta.isEmpty()) {
+			return ResponseEntity.badRequest().body("Must provide timeslot ids to add or remove.");
+		}
+
+		Team team = teamService
+			.getTeamById(teamId)
+			.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No team found with id " + teamId));
+
+		TeamMember leader = teamService
+			.getTeamLeader(team)
+			.orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to update availabilities for team. Team does not seem to have a team leader."));
+
+		if (!leader.getUser().getUserId().equals(delta.getUserId())) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only team leaders are allowed to update team availabilities!");
+		}
+
+		Tournament tournament = team.getTournament();
+		if (tournament == null) {
+			return ResponseEntity.internalServerError().body("Something went wrong. Error: Team does not seem to be associated with any tournament.");
+		}
+
+		try {
+			scheduleService.updateTeamTimeslots(tournament.getSchedule(), team, delta.getAdd(), delta.getRemove());
+			teamAvailabilityAggregator.evict(teamId);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		return ResponseEntity.ok("Team availabilities have been updated");
+	}
+
 	@PostMapping(path = "actions/post_team_availabilities/{team_id}")
 	public ResponseEntity<String> postTeamAvailabilities(
 		@PathVariable(value = "team_id") Long teamId,
@@ -313,6 +421,7 @@ public class TeamController {
         if (scheduleService.validateTimeslotIds(tournament.getSchedule(), tournamentTimeslotIds)) {
             // Add team availabilities to tournament
             scheduleService.addTeamToTimeslots(tournament.getSchedule(), team, tournamentTimeslotIds);
+            teamAvailabilityAggregator.evict(teamId);
         } else {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
@@ -321,4 +430,15 @@ public class TeamController {
 
 		return ResponseEntity.ok("Team availabilities have been indicated");
 	}
+
+	/**
+	 * @throws ResponseStatusException with status 400 if the team does not belong to a tournament with a schedule.
+	 */
+	private static Schedule getScheduleOfTeam(Team team) {
+		Tournament tournament = team.getTournament();
+		if (tournament == null || tournament.getSchedule() == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Team " + team.getTeamId() + " is not associated with any tournament schedule.");
+		}
+		return tournament.getSchedule();
+	}
 }
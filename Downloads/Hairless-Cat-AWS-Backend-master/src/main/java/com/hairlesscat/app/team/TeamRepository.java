@@ -1,9 +1,11 @@
 package com.hairlesscat.app.team;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,6 +13,17 @@ public interface TeamRepository extends  JpaRepository<Team, Long>{
 
 	List<Team> findAllByTournament_TournamentId(Long tournamentId);
 
+	@Query("SELECT t FROM Team t LEFT JOIN FETCH t.tournament WHERE t.teamId > ?1 ORDER BY t.teamId")
+	List<Team> findPage(Long cursor, Pageable limit);
+
+	@Query("SELECT t FROM Team t LEFT JOIN FETCH t.tournament WHERE t.tournament.tournamentId = ?1 AND t.teamId > ?2 ORDER BY t.teamId")
+	List<Team> findPageByTournament(Long tournamentId, Long cursor, Pageable limit);
+
+	@Query("SELECT t FROM Team t LEFT JOIN FETCH t.tournament WHERE t.teamId IN (SELECT tm.team.teamId FROM TeamMember tm WHERE tm.user.userId = ?1) AND t.teamId > ?2 ORDER BY t.teamId")
+	List<Team> findPageByMember(String userId, Long cursor, Pageable limit);
+
+	List<Team> findAllByTournament_TournamentIdIn(Collection<Long> tournamentIds);
+
 	@Query(value = "SELECT tournament_id FROM team WHERE team_id = ?1", nativeQuery = true)
 	List<Long> findTournamentIdByTeamId(Long teamId);
 }
@@ -2,7 +2,10 @@ package com.hairlesscat.app.team;
 
 import com.hairlesscat.app.tournament.Tournament;
 import com.hairlesscat.app.teammember.TeamMember;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
 import com.hairlesscat.app.user.User;
+import com.hairlesscat.app.util.BitSlicedCounter;
+import com.hairlesscat.app.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -24,8 +27,20 @@ public class TeamService {
         return teamRepository.findById(teamId);
     }
 
-    public List<Team> getTeams() {
-        return teamRepository.findAll();
+    /**
+     * The paged team lists return the first {@code size} + 1 teams with an id greater than {@code cursor},
+     * see {@link KeysetPage}.
+     */
+    public List<Team> getTeams(long cursor, int size) {
+        return teamRepository.findPage(cursor, KeysetPage.limit(size));
+    }
+
+    public List<Team> getTeamsOfTournament(Long tournamentId, long cursor, int size) {
+        return teamRepository.findPageByTournament(tournamentId, cursor, KeysetPage.limit(size));
+    }
+
+    public List<Team> getTeamsOfMember(String userId, long cursor, int size) {
+        return teamRepository.findPageByMember(userId, cursor, KeysetPage.limit(size));
     }
 
     public Team createTeam(Tournament tournament, String teamName, User teamLeader) {
@@ -88,26 +103,40 @@ public class TeamService {
         return teamRepository.findAllByTournament_TournamentId(tournamentId);
     }
 
-    public List<Long> aggregateTeamMemberAvailabilities(Set<TeamMember> teamMembers, int minNumberOfPlayersRequired) {
-        // Store the count of members available for a particular timeslot
-        Map<Long, Integer> timeslotCountMap = new HashMap<>();
+    public List<Team> getTeamsOfTournaments(Collection<Long> tournamentIds) {
+        return teamRepository.findAllByTournament_TournamentIdIn(tournamentIds);
+    }
 
-        // Iterate through each teamMember and collect their available timings
+    /**
+     * Finds the timeslots for which at least {@code minNumberOfPlayersRequired} team members indicated availability.
+     * Every member's availability is turned into a bitset over the timeslots indicated by any member, and the
+     * bitsets are counted with a {@link BitSlicedCounter}.
+     *
+     * @return the ids of the timeslots the team is available for, in ascending order.
+     */
+    public List<Long> aggregateTeamMemberAvailabilities(Set<TeamMember> teamMembers, int minNumberOfPlayersRequired) {
+        // Number the timeslots indicated by any member
+        TimeslotIdRanges indicatedTimeslots = TimeslotIdRanges.EMPTY;
         for (TeamMember teamMember : teamMembers) {
-            for (Long timeslotId : teamMember.getUserIndicatedTimeslotIds()) {
-                int currentCount = timeslotCountMap.getOrDefault(timeslotId, 0);
-                timeslotCountMap.put(timeslotId, currentCount + 1);
-            }
+            indicatedTimeslots = indicatedTimeslots.union(teamMember.getUserIndicatedTimeslotRanges());
         }
+        long[] timeslotIds = indicatedTimeslots.toArray();
 
-        List<Long> validTimeslotIdsForTeam = new ArrayList<>();
-        for (Long timeslotId : timeslotCountMap.keySet()) {
-            // Get all the timeslots that have enough team members at that time
-            if (timeslotCountMap.get(timeslotId) >= minNumberOfPlayersRequired) {
-                validTimeslotIdsForTeam.add(timeslotId);
+        BitSlicedCounter memberCounts = new BitSlicedCounter(timeslotIds.length, teamMembers.size());
+        for (TeamMember teamMember : teamMembers) {
+            BitSet memberAvailability = new BitSet(timeslotIds.length);
+            for (long timeslotId : teamMember.getUserIndicatedTimeslotRanges().toArray()) {
+                memberAvailability.set(Arrays.binarySearch(timeslotIds, timeslotId));
             }
+            memberCounts.add(memberAvailability);
         }
 
+        // Get all the timeslots that have enough team members at that time
+        BitSet teamAvailability = memberCounts.atLeast(minNumberOfPlayersRequired);
+        List<Long> validTimeslotIdsForTeam = new ArrayList<>(teamAvailability.cardinality());
+        for (int k = teamAvailability.nextSetBit(0); k >= 0 && k < timeslotIds.length; k = teamAvailability.nextSetBit(k + 1)) {
+            validTimeslotIdsForTeam.add(timeslotIds[k]);
+        }
         return validTimeslotIdsForTeam;
     }
 
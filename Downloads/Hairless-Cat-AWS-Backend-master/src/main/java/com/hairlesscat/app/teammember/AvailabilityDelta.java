@@ -0,0 +1,46 @@
+package com.hairlesscat.app.teammember;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Timeslots to add to and remove from an availability, as sent to the availability PATCH endpoints.
+ * A timeslot that is both added and removed ends up removed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDelta {
+    @JsonProperty("user_id")
+    private String userId;
+
+    @JsonProperty("add")
+    private Set<Long> add = Set.of();
+
+    @JsonProperty("remove")
+    private Set<Long> remove = Set.of();
+
+    public Set<Long> getAdd() {
+        return add == null ? Set.of() : add;
+    }
+
+    public Set<Long> getRemove() {
+        return remove == null ? Set.of() : remove;
+    }
+
+    public boolean isEmpty() {
+        return getAdd().isEmpty() && getRemove().isEmpty();
+    }
+
+    /**
+     * @return {@code ranges} with the delta applied.
+     */
+    public TimeslotIdRanges applyTo(TimeslotIdRanges ranges) {
+        return ranges.union(TimeslotIdRanges.fromIds(getAdd())).difference(TimeslotIdRanges.fromIds(getRemove()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.hairlesscat.app.teammember;
+
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+
+/**
+ * Published when the indicated availability of a team member changes.
+ *
+ * @param added the timeslots the member became available for.
+ * @param removed the timeslots the member is no longer available for.
+ */
+public record MemberAvailabilityChangedEvent(Long teamId, String userId, TimeslotIdRanges added, TimeslotIdRanges removed) {}
@@ -0,0 +1,25 @@
+package com.hairlesscat.app.teammember;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Availability of one team member, as submitted to the bulk member availability endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberAvailabilitySubmission {
+    @JsonProperty("team_id")
+    private Long teamId;
+
+    @JsonProperty("user_id")
+    private String userId;
+
+    @JsonProperty("timeslot_ids")
+    private Set<Long> timeslotIds;
+}
@@ -5,13 +5,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.hairlesscat.app.team.Team;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRangesConverter;
 import com.hairlesscat.app.user.User;
 import com.hairlesscat.app.view.Views;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.Set;
 import javax.validation.constraints.NotNull;
 
@@ -44,9 +46,11 @@ public class TeamMember {
     @JsonView(Views.Membership.class)
     private Boolean isLeader;
 
-    @ElementCollection
-    @JsonProperty("user_indicated_timeslot_ids")
-	Set<Long> userIndicatedTimeslotIds = new HashSet<>();
+    // Run length encoded so that a contiguous availability is a single range instead of one row per timeslot
+    @Convert(converter = TimeslotIdRangesConverter.class)
+    @Column(name = "user_indicated_timeslot_ranges", columnDefinition = "TEXT")
+    @JsonIgnore
+    TimeslotIdRanges userIndicatedTimeslotRanges = TimeslotIdRanges.EMPTY;
 
     @Column(name = "indicated_availabilities")
     @JsonProperty("indicated_availabilities")
@@ -58,6 +62,15 @@ public class TeamMember {
         this.isLeader = isLeader;
     }
 
+    @JsonProperty("user_indicated_timeslot_ids")
+    public Set<Long> getUserIndicatedTimeslotIds() {
+        return userIndicatedTimeslotRanges.toSet();
+    }
+
+    public void setUserIndicatedTimeslotIds(Collection<Long> timeslotIds) {
+        this.userIndicatedTimeslotRanges = TimeslotIdRanges.fromIds(timeslotIds);
+    }
+
     public boolean hasIndicatedAvailabilities() {
         return this.indicatedAvailabilities;
     }
@@ -4,6 +4,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,6 @@ public interface TeamMemberRepository extends JpaRepository<TeamMember, TeamMemb
 	@Query(value = "SELECT * FROM team_member WHERE user_id = ?1 AND team_id = ?2", nativeQuery = true)
 	Optional<TeamMember> findByIds(String userId, Long teamId);
 
-	@Query(value = "SELECT user_indicated_timeslot_ids FROM team_member_user_indicated_timeslot_ids WHERE team_member_user_id = ?1 AND team_member_team_id = ?2", nativeQuery = true)
-	List<Long> findTimeslotIdsByUserIdTeamId(String userId, Long teamId);
+	@Query("SELECT tm FROM TeamMember tm JOIN FETCH tm.team t LEFT JOIN FETCH t.tournament tr LEFT JOIN FETCH tr.schedule WHERE t.teamId IN ?1")
+	List<TeamMember> findAllWithScheduleByTeamIds(Collection<Long> teamIds);
 }
@@ -1,22 +1,30 @@
 package com.hairlesscat.app.teammember;
 
+import com.hairlesscat.app.tournament.Tournament;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIndex;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslotService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
 @Service
 public class TeamMemberService {
 
+    public static final int MAX_SUBMISSIONS_PER_REQUEST = 5000;
+
     private final TeamMemberRepository teamMemberRepository;
+    private final TournamentTimeslotService tournamentTimeslotService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public TeamMemberService(TeamMemberRepository teamMemberRepository) {
+    public TeamMemberService(TeamMemberRepository teamMemberRepository, TournamentTimeslotService tournamentTimeslotService, ApplicationEventPublisher eventPublisher) {
         this.teamMemberRepository = teamMemberRepository;
+        this.tournamentTimeslotService = tournamentTimeslotService;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Long> findAllTeamIdsByUserId(String userId) {
@@ -32,7 +40,10 @@ public class TeamMemberService {
 	}
 
     public List<Long> findTimeslotIdsByUserIdTeamId(String userId, Long teamId) {
-        return teamMemberRepository.findTimeslotIdsByUserIdTeamId(userId, teamId);
+        return teamMemberRepository
+                .findByIds(userId, teamId)
+                .map(member -> member.getUserIndicatedTimeslotRanges().toList())
+                .orElse(List.of());
     }
 
     @Transactional
@@ -40,8 +51,10 @@ public class TeamMemberService {
         boolean isSuccessful = false;
         for (TeamMember member : teamMembers) {
             if (member.getUser().getUserId().equals(userId)) {
-                member.setUserIndicatedTimeslotIds(Set.copyOf(timeslotIds));
+                TimeslotIdRanges previous = member.getUserIndicatedTimeslotRanges();
+                member.setUserIndicatedTimeslotIds(timeslotIds);
                 member.setIndicatedAvailabilities(true);
+                publishAvailabilityChanged(member, previous);
                 isSuccessful = true;
                 break;
             }
@@ -49,10 +62,105 @@ public class TeamMemberService {
         return isSuccessful;
     }
 
+    /**
+     * Sets the availabilities of many members, possibly of different teams and tournaments, at once.
+     * The members and the schedules of all timeslot ids are loaded with one query each and every submission is
+     * validated before anything is written, so either all availabilities are set or none.
+     *
+     * @return number of member availabilities set.
+     * @throws IllegalArgumentException if a submission is incomplete, refers to a member that does not exist or
+     *                                  to a timeslot that is not in the tournament of the member's team.
+     */
+    @Transactional
+    public int setMemberAvailabilities(List<MemberAvailabilitySubmission> submissions) {
+        if (submissions.size() > MAX_SUBMISSIONS_PER_REQUEST) {
+            throw new IllegalArgumentException("At most " + MAX_SUBMISSIONS_PER_REQUEST + " member availabilities can be submitted at once.");
+        }
+
+        Set<Long> teamIds = new HashSet<>();
+        Set<Long> timeslotIds = new HashSet<>();
+        for (MemberAvailabilitySubmission submission : submissions) {
+            if (submission.getTeamId() == null || submission.getUserId() == null || submission.getTimeslotIds() == null) {
+                throw new IllegalArgumentException("Every submission must have a team_id, a user_id and timeslot_ids.");
+            }
+            teamIds.add(submission.getTeamId());
+            timeslotIds.addAll(submission.getTimeslotIds());
+        }
+        if (teamIds.isEmpty()) return 0;
+
+        Map<TeamMemberKey, TeamMember> members = new HashMap<>();
+        for (TeamMember member : teamMemberRepository.findAllWithScheduleByTeamIds(teamIds)) {
+            members.put(new TeamMemberKey(member.getTeam().getTeamId(), member.getUser().getUserId()), member);
+        }
+        Map<Long, Long> scheduleIdsOfTimeslots = tournamentTimeslotService.getScheduleIdsOfTimeslots(timeslotIds);
+
+        Map<TeamMemberKey, MemberAvailabilitySubmission> updates = new LinkedHashMap<>();
+        for (MemberAvailabilitySubmission submission : submissions) {
+            TeamMemberKey key = new TeamMemberKey(submission.getTeamId(), submission.getUserId());
+            TeamMember member = members.get(key);
+            if (member == null) {
+                throw new IllegalArgumentException(String.format("User with user id %s not found in team with id %d", submission.getUserId(), submission.getTeamId()));
+            }
+            if (updates.put(key, submission) != null) {
+                throw new IllegalArgumentException(String.format("Availabilities of user %s in team %d are submitted more than once.", submission.getUserId(), submission.getTeamId()));
+            }
+
+            Tournament tournament = member.getTeam().getTournament();
+            Long scheduleId = tournament == null || tournament.getSchedule() == null ? null : tournament.getSchedule().getScheduleId();
+            for (Long timeslotId : submission.getTimeslotIds()) {
+                if (scheduleId == null || !scheduleId.equals(scheduleIdsOfTimeslots.get(timeslotId))) {
+                    throw new IllegalArgumentException(String.format(
+                            "Timeslot %d submitted for user %s does not correspond to the timeslots in the tournament of team %d.",
+                            timeslotId, submission.getUserId(), submission.getTeamId()));
+                }
+            }
+        }
+
+        // The members are managed, the updates are flushed together when the transaction commits
+        updates.forEach((key, submission) -> {
+            TeamMember member = members.get(key);
+            TimeslotIdRanges previous = member.getUserIndicatedTimeslotRanges();
+            member.setUserIndicatedTimeslotIds(submission.getTimeslotIds());
+            member.setIndicatedAvailabilities(true);
+            publishAvailabilityChanged(member, previous);
+        });
+        return updates.size();
+    }
+
+    /**
+     * Adds and removes timeslots from the availability of a member instead of replacing it.
+     *
+     * @param timeslotIndex index of the timeslots of the member's tournament.
+     * @throws IllegalArgumentException if a timeslot to add is not a timeslot of the tournament.
+     */
+    @Transactional
+    public void updateMemberAvailabilities(TeamMember member, AvailabilityDelta delta, TimeslotIndex timeslotIndex) {
+        if (!timeslotIndex.containsAll(delta.getAdd())) {
+            throw new IllegalArgumentException("One or more timeslot ids provided do not correspond to the timeslots in tournament.");
+        }
+
+        TimeslotIdRanges previous = member.getUserIndicatedTimeslotRanges();
+        member.setUserIndicatedTimeslotRanges(delta.applyTo(previous));
+        member.setIndicatedAvailabilities(true);
+        publishAvailabilityChanged(member, previous);
+    }
+
 	@Transactional
 	public void deleteUserTimeslots(TeamMember teamMember) {
-		Set<Long> timeslotIds = new HashSet<>();
-		teamMember.setUserIndicatedTimeslotIds(timeslotIds);
+		TimeslotIdRanges previous = teamMember.getUserIndicatedTimeslotRanges();
+		teamMember.setUserIndicatedTimeslotRanges(TimeslotIdRanges.EMPTY);
 		teamMember.setIndicatedAvailabilities(false);
+		publishAvailabilityChanged(teamMember, previous);
 	}
+
+    private void publishAvailabilityChanged(TeamMember member, TimeslotIdRanges previous) {
+        TimeslotIdRanges current = member.getUserIndicatedTimeslotRanges();
+        eventPublisher.publishEvent(new MemberAvailabilityChangedEvent(
+                member.getTeam().getTeamId(),
+                member.getUser().getUserId(),
+                current.difference(previous),
+                previous.difference(current)));
+    }
+
+    private record TeamMemberKey(Long teamId, String userId) {}
 }
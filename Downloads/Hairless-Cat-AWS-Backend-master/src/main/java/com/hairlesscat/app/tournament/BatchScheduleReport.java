@@ -0,0 +1,44 @@
+package com.hairlesscat.app.tournament;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of scheduling a single tournament as part of a batch, see {@link ScheduleBatchService}.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchScheduleReport {
+    public enum Outcome {
+        SUCCESS,
+        ERROR,
+        SKIPPED
+    }
+
+    @JsonProperty("tournament_id")
+    private Long tournamentId;
+
+    @JsonProperty("status")
+    private Outcome status;
+
+    @JsonProperty("num_matches")
+    private Integer numMatches;
+
+    @JsonProperty("message")
+    private String message;
+
+    public static BatchScheduleReport success(Long tournamentId, int numMatches) {
+        return new BatchScheduleReport(tournamentId, Outcome.SUCCESS, numMatches, null);
+    }
+
+    public static BatchScheduleReport error(Long tournamentId, String message) {
+        return new BatchScheduleReport(tournamentId, Outcome.ERROR, null, message);
+    }
+
+    public static BatchScheduleReport skipped(Long tournamentId, String message) {
+        return new BatchScheduleReport(tournamentId, Outcome.SKIPPED, null, message);
+    }
+}
@@ -0,0 +1,193 @@
+package com.hairlesscat.app.tournament;
+
+import com.hairlesscat.app.algorithm.Algorithm;
+import com.hairlesscat.app.algorithm.AvailabilityMatrix;
+import com.hairlesscat.app.algorithm.ImperfectMatchingException;
+import com.hairlesscat.app.algorithm.MoreMatchesThanAvailableTimeslotsException;
+import com.hairlesscat.app.algorithm.RoundRobinSolution;
+import com.hairlesscat.app.match.Match;
+import com.hairlesscat.app.schedule.Schedule;
+import com.hairlesscat.app.schedule.ScheduleService;
+import com.hairlesscat.app.team.Team;
+import com.hairlesscat.app.team.TeamService;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.transaction.Transactional;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Generates the match schedules of many tournaments in one go.
+ * <p>
+ * The inputs of all tournaments are loaded with a fixed number of set based queries, the matchings are solved
+ * concurrently on a bounded {@link ForkJoinPool} and the resulting matches are saved together in flushed chunks so
+ * that Hibernate can send them in JDBC batches.
+ */
+@Service
+public class ScheduleBatchService {
+    public static final int MAX_TOURNAMENTS_PER_BATCH = 200;
+    private static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private final TournamentService tournamentService;
+    private final TeamService teamService;
+    private final TournamentTimeslotService tournamentTimeslotService;
+    private final ScheduleService scheduleService;
+    private final ForkJoinPool solverPool = new ForkJoinPool(PARALLELISM);
+
+    @Autowired
+    public ScheduleBatchService(TournamentService tournamentService, TeamService teamService, TournamentTimeslotService tournamentTimeslotService, ScheduleService scheduleService) {
+        this.tournamentService = tournamentService;
+        this.teamService = teamService;
+        this.tournamentTimeslotService = tournamentTimeslotService;
+        this.scheduleService = scheduleService;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        solverPool.shutdown();
+    }
+
+    /**
+     * @param tournamentIds ids of the tournaments to schedule.
+     * @return one report per requested tournament, in the order of {@code tournamentIds}.
+     * @throws IllegalArgumentException if more than {@link #MAX_TOURNAMENTS_PER_BATCH} tournaments are requested.
+     */
+    @Transactional
+    public List<BatchScheduleReport> generateMatchSchedules(Collection<Long> tournamentIds) {
+        Set<Long> ids = new LinkedHashSet<>(tournamentIds);
+        if (ids.size() > MAX_TOURNAMENTS_PER_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_TOURNAMENTS_PER_BATCH + " tournaments can be scheduled in one batch.");
+        }
+
+        Map<Long, BatchScheduleReport> reports = new LinkedHashMap<>();
+        ids.forEach(id -> reports.put(id, BatchScheduleReport.skipped(id, "No tournament found with id " + id)));
+        if (ids.isEmpty()) return List.of();
+
+        // Set based loading of all inputs
+        List<Tournament> tournaments = tournamentService.getTournamentsWithSchedule(ids);
+        Map<Long, List<Team>> teamsByTournament = new HashMap<>();
+        for (Team team : teamService.getTeamsOfTournaments(ids)) {
+            teamsByTournament.computeIfAbsent(team.getTournament().getTournamentId(), id -> new ArrayList<>()).add(team);
+        }
+        List<Long> scheduleIds = tournaments.stream().map(t -> t.getSchedule().getScheduleId()).toList();
+        Map<Long, List<TournamentTimeslot>> timeslotsBySchedule = tournamentTimeslotService.getTimeslotsWithAvailableTeamsBySchedule(scheduleIds);
+
+        // Validate and build the entity free solver inputs on this thread
+        List<SolverInput> inputs = new ArrayList<>();
+        for (Tournament tournament : tournaments) {
+            Schedule schedule = tournament.getSchedule();
+            List<Team> teams = teamsByTournament.getOrDefault(tournament.getTournamentId(), List.of());
+            List<TournamentTimeslot> timeslots = timeslotsBySchedule.getOrDefault(schedule.getScheduleId(), List.of());
+
+            String validationError = validate(tournament, teams, timeslots);
+            if (validationError != null) {
+                reports.put(tournament.getTournamentId(), BatchScheduleReport.skipped(tournament.getTournamentId(), validationError));
+                continue;
+            }
+
+            scheduleService.assignSeedIfMissing(schedule);
+            int slotsPerMatch = tournament.getTournamentParameter().slotsPerMatch(schedule.getSlotDurationMinutes());
+            inputs.add(new SolverInput(tournament, teams, timeslots, AvailabilityMatrix.fromTimeslots(timeslots, teams), slotsPerMatch));
+        }
+
+        List<Future<Object>> outcomes = solveAll(inputs);
+
+        // Persist all results in the calling transaction
+        List<Match> allMatches = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            SolverInput input = inputs.get(i);
+            Tournament tournament = input.tournament();
+            Schedule schedule = tournament.getSchedule();
+
+            try {
+                RoundRobinSolution solution = getOutcome(outcomes.get(i));
+                List<Match> matches = Algorithm.toMatches(input.matrix(), solution, input.teams());
+                matches.forEach(match -> match.setTournament(tournament).setSchedule(schedule));
+                allMatches.addAll(matches);
+
+                schedule.setScheduleStatusSuccess();
+                scheduleService.updateScheduleMetrics(schedule, matches, input.timeslots());
+                reports.put(tournament.getTournamentId(), BatchScheduleReport.success(tournament.getTournamentId(), matches.size()));
+            } catch (ImperfectMatchingException | MoreMatchesThanAvailableTimeslotsException e) {
+                schedule.setScheduleStatusError(e.getMessage());
+                scheduleService.resetTeamAvailabilities(schedule);
+                reports.put(tournament.getTournamentId(), BatchScheduleReport.error(tournament.getTournamentId(), e.getMessage()));
+            }
+        }
+        scheduleService.persistMatches(allMatches);
+
+        return new ArrayList<>(reports.values());
+    }
+
+    private List<Future<Object>> solveAll(List<SolverInput> inputs) {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (SolverInput input : inputs) {
+            Long scheduleId = input.tournament().getSchedule().getScheduleId();
+            Long seed = input.tournament().getSchedule().getScheduleSeed();
+            int slotsPerMatch = input.slotsPerMatch();
+            tasks.add(() -> {
+                try {
+                    return scheduleService.solve(scheduleId, seed, input.matrix(), slotsPerMatch);
+                } catch (MoreMatchesThanAvailableTimeslotsException e) {
+                    return e;
+                }
+            });
+        }
+        return solverPool.invokeAll(tasks);
+    }
+
+    private static RoundRobinSolution getOutcome(Future<Object> future) throws MoreMatchesThanAvailableTimeslotsException {
+        Object outcome;
+        try {
+            outcome = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating match schedules.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scheduling algorithm failed.", e.getCause());
+        }
+        if (outcome instanceof MoreMatchesThanAvailableTimeslotsException e) {
+            throw e;
+        }
+        return (RoundRobinSolution) outcome;
+    }
+
+    /**
+     * Same checks as the single tournament endpoint.
+     *
+     * @return the reason why the tournament cannot be scheduled, or {@code null} if it can.
+     */
+    private static String validate(Tournament tournament, List<Team> teams, List<TournamentTimeslot> timeslots) {
+        if (tournament.getSchedule().isScheduled()) {
+            return "Tournament has already been scheduled.";
+        }
+        if (teams.isEmpty()) {
+            return "No teams are found in tournament " + tournament.getTournamentId();
+        }
+        int minNumRequiredTeams = tournament.getTournamentParameter().getMinNumberOfTeams();
+        if (teams.size() < minNumRequiredTeams) {
+            return String.format(
+                    "The required number of teams in this tournament has not been met. Number of teams currently: %d, number of required teams: %d.",
+                    teams.size(),
+                    minNumRequiredTeams);
+        }
+        if (timeslots.isEmpty()) {
+            return "Tournament schedule configuration is not set properly or not fit for generating a match schedule.";
+        }
+
+        Set<Long> teamsWithAvailability = new HashSet<>();
+        timeslots.forEach(timeslot -> timeslot.getAvailableTeams().forEach(team -> teamsWithAvailability.add(team.getTeamId())));
+        for (Team team : teams) {
+            if (!teamsWithAvailability.contains(team.getTeamId())) {
+                return "Team " + team.getTeamId() + " of tournament " + tournament.getTournamentId() + " has no indicated team availability.";
+            }
+        }
+        return null;
+    }
+
+    private record SolverInput(Tournament tournament, List<Team> teams, List<TournamentTimeslot> timeslots, AvailabilityMatrix matrix, int slotsPerMatch) {}
+}
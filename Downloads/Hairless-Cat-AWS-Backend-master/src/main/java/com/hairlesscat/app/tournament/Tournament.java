@@ -1,9 +1,11 @@
 package com.hairlesscat.app.tournament;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.hairlesscat.app.match.Match;
+import com.hairlesscat.app.match.MatchStatus;
 import com.hairlesscat.app.schedule.Schedule;
 import com.hairlesscat.app.team.Team;
 import com.hairlesscat.app.user.User;
@@ -11,6 +13,8 @@ import com.hairlesscat.app.util.Status;
 import com.hairlesscat.app.view.Views;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -23,8 +27,12 @@ import java.util.Set;
 @Table(name = "tournament")
 @Data
 @NoArgsConstructor
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tournament")
 public class Tournament {
 
+    // Statuses of the matches that all of their teams have confirmed, whether played or not
+    public static final Set<MatchStatus> CONFIRMED_MATCH_STATUSES = Set.of(MatchStatus.UPCOMING, MatchStatus.COMPLETED);
+
     @Id
     @SequenceGenerator(
             name = "tournament_sequence",
@@ -91,6 +99,32 @@ public class Tournament {
     @JsonView(Views.TournamentFull.class)
 	private User adminUser;
 
+    // Only set by TournamentRepository.markDeleted, so that saving a tournament loaded before cannot undo a deletion
+    @Column(name = "deleted", nullable = false, updatable = false)
+    @JsonIgnore
+    private boolean deleted = false;
+
+    // Counts of the summary view, set by TournamentService without loading the teams and matches. Left out of the
+    // response when they were not computed.
+    @Transient
+    @JsonProperty("team_count")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonView(Views.TournamentSummary.class)
+    private Long teamCount;
+
+    @Transient
+    @JsonProperty("match_count")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonView(Views.TournamentSummary.class)
+    private Long matchCount;
+
+    // Number of matches with one of the CONFIRMED_MATCH_STATUSES
+    @Transient
+    @JsonProperty("confirmed_match_count")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonView(Views.TournamentSummary.class)
+    private Long confirmedMatchCount;
+
     public Tournament(String name, String description, TournamentParameter tournamentParameter, Schedule schedule) {
         this.name = name;
         this.description = description;
@@ -114,4 +148,14 @@ public class Tournament {
     public boolean containsTeam(Team team) {
         return teams.contains(team);
     }
+
+    /**
+     * Sets the counts of the summary view from the teams and matches, for a tournament whose collections are loaded
+     * anyway.
+     */
+    public void countTeamsAndMatches() {
+        teamCount = (long) teams.size();
+        matchCount = matches == null ? 0L : matches.size();
+        confirmedMatchCount = matches == null ? 0L : matches.stream().filter(match -> CONFIRMED_MATCH_STATUSES.contains(match.getMatchStatus())).count();
+    }
 }
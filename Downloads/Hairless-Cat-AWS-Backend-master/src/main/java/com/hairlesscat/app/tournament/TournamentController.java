@@ -1,12 +1,18 @@
 package com.hairlesscat.app.tournament;
 
 import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import com.hairlesscat.app.algorithm.ImperfectMatchingException;
 import com.hairlesscat.app.algorithm.MoreMatchesThanAvailableTimeslotsException;
+import com.hairlesscat.app.archive.TournamentArchiveService;
 import com.hairlesscat.app.match.Match;
 import com.hairlesscat.app.schedule.Schedule;
+import com.hairlesscat.app.schedule.ScheduleFeasibilityService;
 import com.hairlesscat.app.schedule.ScheduleService;
+import com.hairlesscat.app.schedule.ScheduleStatus;
+import com.hairlesscat.app.schedule.WhatIfCandidate;
+import com.hairlesscat.app.schedule.WhatIfResult;
 import com.hairlesscat.app.team.Team;
 import com.hairlesscat.app.team.TeamService;
 import com.hairlesscat.app.teammember.TeamMemberService;
@@ -14,6 +20,7 @@ import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
 import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslotService;
 import com.hairlesscat.app.user.User;
 import com.hairlesscat.app.user.UserService;
+import com.hairlesscat.app.util.KeysetPage;
 import com.hairlesscat.app.util.ResponseWrapper;
 import com.hairlesscat.app.view.Views;
 import com.hairlesscat.app.validation.MissingFieldsException;
@@ -35,57 +42,70 @@ public class TournamentController {
     private final TeamService teamService;
     private final UserService userService;
     private final TeamMemberService teamMemberService;
+    private final ScheduleFeasibilityService scheduleFeasibilityService;
+    private final ScheduleBatchService scheduleBatchService;
+    private final TournamentArchiveService tournamentArchiveService;
 
-    public TournamentController(TournamentService tournamentService, ScheduleService scheduleService, TournamentTimeslotService tournamentTimeslotService, TeamService teamService, UserService userService, TeamMemberService teamMemberService) {
+    public TournamentController(TournamentService tournamentService, ScheduleService scheduleService, TournamentTimeslotService tournamentTimeslotService, TeamService teamService, UserService userService, TeamMemberService teamMemberService, ScheduleFeasibilityService scheduleFeasibilityService, ScheduleBatchService scheduleBatchService, TournamentArchiveService tournamentArchiveService) {
         this.tournamentService = tournamentService;
         this.scheduleService = scheduleService;
         this.tournamentTimeslotService = tournamentTimeslotService;
         this.teamService = teamService;
         this.userService = userService;
         this.teamMemberService = teamMemberService;
+        this.scheduleFeasibilityService = scheduleFeasibilityService;
+        this.scheduleBatchService = scheduleBatchService;
+        this.tournamentArchiveService = tournamentArchiveService;
     }
 
     @GetMapping
     @JsonView(Views.TournamentSummary.class)
-    public ResponseEntity<Map<String, List<Tournament>>> getTournaments(
+    public ResponseEntity<Map<String, Object>> getTournaments(
             @RequestParam(value = "user_id", required = false) String userId,
             @RequestParam(value = "unscheduled_only", required = false) boolean unscheduledQueryParamIsSet,
-			@RequestParam(value = "scheduled_only", required = false) boolean scheduledQueryParamIsSet) {
-
-        List<Tournament> tournaments;
-
-        if (userId == null) {
-            tournaments = tournamentService.getTournaments();
-        } else {
-            tournaments = tournamentService.getTournamentsByUserId(userId);
-        }
+			@RequestParam(value = "scheduled_only", required = false) boolean scheduledQueryParamIsSet,
+            @RequestParam(value = "archived_only", required = false) boolean archivedQueryParamIsSet,
+            @RequestParam(value = "cursor", defaultValue = "0") long cursor,
+            @RequestParam(value = "size", defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size) {
 
+        Set<ScheduleStatus> scheduleStatuses = EnumSet.allOf(ScheduleStatus.class);
         if (unscheduledQueryParamIsSet) {
-            tournaments = tournamentService.filterForUnscheduledTournaments(tournaments);
+            scheduleStatuses.remove(ScheduleStatus.SCHEDULE_GENERATED_SUCCESS);
         }
-		if (scheduledQueryParamIsSet){
-			tournaments = tournamentService.filterForScheduledTournaments(tournaments);
+		if (scheduledQueryParamIsSet) {
+			scheduleStatuses.retainAll(Set.of(ScheduleStatus.SCHEDULE_GENERATED_SUCCESS));
 		}
 
-
-        return ResponseEntity.ok(ResponseWrapper.wrapResponse("tournaments", tournaments));
+        try {
+            // Archived tournaments are completed ones moved out of the hot tables, see TournamentArchiver
+            if (archivedQueryParamIsSet) {
+                List<JsonNode> tournaments = tournamentArchiveService.getArchivedTournaments(userId, cursor, size);
+                return ResponseEntity.ok(KeysetPage.wrapResponse("tournaments", tournaments, size, tournament -> tournament.get("tournament_id").asLong()));
+            }
+            List<Tournament> tournaments = tournamentService.getTournaments(userId, scheduleStatuses, cursor, size);
+            return ResponseEntity.ok(KeysetPage.wrapResponse("tournaments", tournaments, size, Tournament::getTournamentId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping(path = "{tournament_id}")
     @JsonView(Views.TournamentFull.class)
-    public ResponseEntity<Tournament> getTournamentById(@PathVariable(value = "tournament_id") Long tournamentId) {
-        Tournament tournament = tournamentService
-                .getTournamentByTournamentId(tournamentId)
+    public ResponseEntity<Object> getTournamentById(@PathVariable(value = "tournament_id") Long tournamentId) {
+        Optional<Tournament> tournament = tournamentService.getTournamentForFullView(tournamentId);
+        if (tournament.isPresent()) {
+            return ResponseEntity.ok(tournament.get());
+        }
+        JsonNode archivedTournament = tournamentArchiveService
+                .getArchivedTournament(tournamentId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No tournament found with id " + tournamentId));
-        return ResponseEntity.ok(tournament);
+        return ResponseEntity.ok(archivedTournament);
     }
 
     @DeleteMapping(params = {"tournament_id"})
     public Long deleteTournament(@RequestParam(value = "tournament_id") Long tournamentId) {
-        try {
-            tournamentService.deleteTournament(tournamentId);
-        } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        if (!tournamentService.deleteTournament(tournamentId) && !tournamentArchiveService.deleteArchivedTournament(tournamentId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No tournament found with id " + tournamentId);
         }
         return tournamentId;
     }
@@ -107,9 +127,7 @@ public class TournamentController {
             tournament.setAdminUser(user);
         });
 
-        Schedule schedule = tournament.getSchedule();
-        List<TournamentTimeslot> timeslots = tournamentTimeslotService.generateThirtyMinuteTimeslotsFromStartAndEndTime(schedule.getTournamentStartTime(), schedule.getTournamentEndTime());
-        scheduleService.addTimeslotsToSchedule(schedule, timeslots);
+        initialiseScheduleTimeslots(tournament.getSchedule());
         return ResponseEntity.ok(tournamentService.createTournament(tournament));
     }
 
@@ -117,16 +135,69 @@ public class TournamentController {
     @GetMapping(path = "{tournament_id}/timeslots")
     @JsonView(Views.TournamentTimeslot.class)
     public ResponseEntity<Map<String, Object>> getTimeslotsByTournamentId(@PathVariable(value = "tournament_id") Long tournamentId) {
+        Optional<Tournament> tournament = tournamentService.getTournamentByTournamentId(tournamentId);
+        Object timeslots;
+        if (tournament.isPresent()) {
+            timeslots = tournamentTimeslotService.getAllTimeslots(tournament.get().getSchedule());
+        } else {
+            timeslots = tournamentArchiveService
+                    .getArchivedTimeslots(tournamentId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No tournament found with id " + tournamentId));
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("tournament_id", tournamentId);
+        body.put("timeslots", timeslots);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Number of teams available in every timeslot of the tournament, read from the per timeslot counters
+     * instead of serialising the available teams.
+     */
+    @GetMapping(path = "{tournament_id}/timeslots/heatmap")
+    public ResponseEntity<Map<String, Object>> getAvailabilityHeatmap(@PathVariable(value = "tournament_id") Long tournamentId) {
         Tournament tournament = tournamentService
                 .getTournamentByTournamentId(tournamentId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No tournament found with id " + tournamentId));
-        List<TournamentTimeslot> timeslots = tournamentService.getTimeslotsFromTournament(tournament);
         Map<String, Object> body = new HashMap<>();
         body.put("tournament_id", tournamentId);
-        body.put("timeslots", timeslots);
+        body.put("heatmap", tournamentTimeslotService.getAvailabilityHeatmap(tournament.getSchedule()));
         return ResponseEntity.ok(body);
     }
 
+    /**
+     * Persists virtual timeslots of the tournament so that availabilities can be indicated for them.
+     * Already persisted timeslots are returned as they are.
+     */
+    @PostMapping(path = "{tournament_id}/schedule/timeslots")
+    @JsonView(Views.Timeslot.class)
+    public ResponseEntity<Map<String, List<TournamentTimeslot>>> materialiseTimeslots(
+            @PathVariable(value = "tournament_id") Long tournamentId,
+            @RequestBody Map<String, List<Integer>> requestBody) {
+
+        try {
+            Validator.requestBodyTopLevelFieldValidation(List.of("slot_indices"), requestBody.keySet());
+        } catch (MissingFieldsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        Tournament tournament = tournamentService
+                .getTournamentByTournamentId(tournamentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No tournament found with id " + tournamentId));
+
+        Schedule schedule = tournament.getSchedule();
+        if (!schedule.isVirtualTimeslots()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tournament " + tournamentId + " does not use virtual timeslots.");
+        }
+
+        try {
+            List<TournamentTimeslot> timeslots = scheduleService.materialiseTimeslots(schedule, requestBody.get("slot_indices"));
+            return ResponseEntity.ok(ResponseWrapper.wrapResponse("timeslots", timeslots));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @DeleteMapping(path = "{tournament_id}/teams/{team_id}")
     @JsonView(Views.TournamentFull.class)
     public ResponseEntity<Tournament> deleteTeamById(@PathVariable(value = "tournament_id") Long tournamentId, @PathVariable(value = "team_id") Long teamId) {
@@ -178,13 +249,14 @@ public class TournamentController {
         }
 
         try {
-            List<Match> matches = scheduleService.generateMatchSchedule(schedule, List.copyOf(teams));
+            int slotsPerMatch = tournament.getTournamentParameter().slotsPerMatch(schedule.getSlotDurationMinutes());
+            List<Match> matches = scheduleService.generateMatchSchedule(schedule, List.copyOf(teams), slotsPerMatch);
             matches
                     .stream()
                     .map(match -> match.setTournament(tournament))
                     .forEach(match -> match.setSchedule(schedule));
             Schedule savedSchedule = scheduleService.addMatchesToSchedule(schedule, matches);
-            scheduleService.setScheduleSuccess(savedSchedule);
+            scheduleService.setScheduleSuccess(savedSchedule, matches);
         } catch (ImperfectMatchingException | MoreMatchesThanAvailableTimeslotsException e) {
             scheduleService.setScheduleError(schedule, e.getMessage());
             scheduleService.resetTeamAvailabilities(schedule);
@@ -193,6 +265,70 @@ public class TournamentController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).body("Running tournament scheduling algorithm.");
     }
 
+    /**
+     * Generates the match schedules of several tournaments at once. The tournaments are either listed in the
+     * request body under {@code tournament_ids}, or selected by filter: every tournament that has not been
+     * scheduled yet, optionally restricted to the tournaments of the admin user {@code user_id}.
+     */
+    @PostMapping(path = "actions/gen_match_schedules")
+    public ResponseEntity<Map<String, List<BatchScheduleReport>>> generateMatchSchedules(
+            @RequestParam(value = "user_id", required = false) String userId,
+            @RequestBody(required = false) Map<String, List<Long>> requestBody) {
+
+        List<Long> tournamentIds;
+        if (requestBody != null && requestBody.get("tournament_ids") != null) {
+            tournamentIds = requestBody.get("tournament_ids");
+        } else {
+            tournamentIds = tournamentService
+                    .getUnscheduledTournamentIds(userId)
+                    .stream()
+                    .limit(ScheduleBatchService.MAX_TOURNAMENTS_PER_BATCH)
+                    .toList();
+        }
+
+        try {
+            return ResponseEntity.ok(ResponseWrapper.wrapResponse("results", scheduleBatchService.generateMatchSchedules(tournamentIds)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Dry run of the scheduling algorithm: evaluates candidate start/end/slot configurations against the
+     * availabilities the teams have indicated so far. Nothing is written to the database.
+     */
+    @PostMapping(path = "{tournament_id}/schedule/what_if")
+    public ResponseEntity<Map<String, Object>> evaluateScheduleCandidates(
+            @PathVariable(value = "tournament_id") Long tournamentId,
+            @RequestBody Map<String, List<WhatIfCandidate>> requestBody) {
+
+        try {
+            Validator.requestBodyTopLevelFieldValidation(List.of("candidates"), requestBody.keySet());
+        } catch (MissingFieldsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        Tournament tournament = tournamentService
+                .getTournamentByTournamentId(tournamentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No tournament found with id " + tournamentId));
+
+        List<WhatIfResult> results;
+        try {
+            results = scheduleFeasibilityService.evaluate(
+                    tournament.getSchedule(),
+                    tournament.getTournamentParameter(),
+                    tournament.getTeams(),
+                    requestBody.get("candidates"));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("tournament_id", tournamentId);
+        body.put("results", results);
+        return ResponseEntity.ok(body);
+    }
+
     @PostMapping(path = "{tournament_id}/teams")
     @JsonView(Views.TeamFull.class)
     public ResponseEntity<Team> addTeamToTournament(
@@ -256,10 +392,29 @@ public class TournamentController {
                 .getUserById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cannot create tournament because no user found with id " + userId));
         tournament.setAdminUser(user);
-        Schedule schedule = tournament.getSchedule();
-        List<TournamentTimeslot> timeslots = tournamentTimeslotService.generateThirtyMinuteTimeslotsFromStartAndEndTime(schedule.getTournamentStartTime(), schedule.getTournamentEndTime());
-        scheduleService.addTimeslotsToSchedule(schedule, timeslots);
+        initialiseScheduleTimeslots(tournament.getSchedule());
         return ResponseEntity.ok(tournamentService.createTournament(tournament));
     }
 
+    /**
+     * Generates the timeslots of a new schedule. Schedules with virtual timeslots start without any persisted timeslot.
+     */
+    private void initialiseScheduleTimeslots(Schedule schedule) {
+        if (schedule.getSlotDurationMinutes() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "slot_duration_minutes must be a positive number of minutes.");
+        }
+
+        List<TournamentTimeslot> timeslots;
+        try {
+            timeslots = schedule.isVirtualTimeslots()
+                    ? new ArrayList<>()
+                    : tournamentTimeslotService.generateTimeslots(schedule);
+            if (schedule.getRecurrence() != null) {
+                schedule.getRecurrence().validate();
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        scheduleService.addTimeslotsToSchedule(schedule, timeslots);
+    }
 }
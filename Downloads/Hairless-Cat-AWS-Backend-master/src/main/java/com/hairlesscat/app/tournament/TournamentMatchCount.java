@@ -0,0 +1,12 @@
+package com.hairlesscat.app.tournament;
+
+/**
+ * Projection of a tournament onto its number of matches, without loading the matches.
+ */
+public interface TournamentMatchCount {
+    Long getTournamentId();
+
+    long getMatchCount();
+
+    long getConfirmedMatchCount();
+}
@@ -8,6 +8,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.Min;
@@ -20,6 +22,7 @@ import javax.validation.constraints.Min;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tournament_parameter")
 public class TournamentParameter {
     @Id
     @SequenceGenerator(
@@ -53,6 +56,13 @@ public class TournamentParameter {
     @JsonProperty("max_number_of_players_per_team")
     private int maxNumberOfPlayersPerTeam;
 
+    // Null means a match occupies exactly one timeslot
+    @Min(value = 1, message = "Match duration must be at least 1 minute")
+    @Column(name = "match_duration_minutes")
+    @JsonView(Views.TournamentParameterFull.class)
+    @JsonProperty("match_duration_minutes")
+    private Integer matchDurationMinutes;
+
     @JsonView(Views.TournamentParameterSummary.class)
     @JsonProperty("tournament_type")
     private TournamentType tournamentType;
@@ -60,4 +70,13 @@ public class TournamentParameter {
     @JsonView(Views.TournamentParameterSummary.class)
     @JsonProperty("tournament_style")
     private TournamentStyle tournamentStyle;
+
+    /**
+     * @param slotDurationMinutes duration of a timeslot of the schedule.
+     * @return number of consecutive timeslots a match needs.
+     */
+    public int slotsPerMatch(int slotDurationMinutes) {
+        if (matchDurationMinutes == null || matchDurationMinutes <= slotDurationMinutes) return 1;
+        return (matchDurationMinutes + slotDurationMinutes - 1) / slotDurationMinutes;
+    }
 }
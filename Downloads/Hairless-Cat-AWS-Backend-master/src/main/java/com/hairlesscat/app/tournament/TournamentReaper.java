@@ -0,0 +1,81 @@
+package com.hairlesscat.app.tournament;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Removes the rows of soft deleted tournaments in the background, see {@link TournamentService#deleteTournament(Long)}.
+ * <p>
+ * The dependent rows are deleted table by table with bounded set based deletes, each in its own short transaction, so
+ * that a large tournament never holds its locks for long. The tournament row is deleted last, so a reaper that stops
+ * midway resumes with the same tournament on its next run. Running it on several instances at once is safe, the
+ * deletes of one instance just find fewer rows.
+ */
+@Component
+public class TournamentReaper {
+    private static final Logger log = LoggerFactory.getLogger(TournamentReaper.class);
+    private static final int TOURNAMENTS_PER_RUN = 10;
+
+    private final TournamentReaperRepository reaperRepository;
+    private final int batchSize;
+
+    @Autowired
+    public TournamentReaper(TournamentReaperRepository reaperRepository, @Value("${tournament.reaper.batch-size:1000}") int batchSize) {
+        this.reaperRepository = reaperRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${tournament.reaper.delay:PT30S}", fixedDelayString = "${tournament.reaper.delay:PT30S}")
+    public void reapDeletedTournaments() {
+        List<Long> tournamentIds = reaperRepository.findDeletedTournamentIds(TOURNAMENTS_PER_RUN);
+        for (Long tournamentId : tournamentIds) {
+            try {
+                reap(tournamentId);
+            } catch (RuntimeException e) {
+                // Retried on the next run, the steps that already completed find nothing left to delete
+                log.warn("Failed to remove the rows of deleted tournament {}", tournamentId, e);
+            }
+        }
+    }
+
+    /**
+     * Removes all rows of a soft deleted tournament.
+     *
+     * @return the number of rows removed, not counting the tournament, schedule and parameter rows.
+     */
+    public long reap(Long tournamentId) {
+        long deleted = 0;
+        deleteAll(reaperRepository::unlinkResults, tournamentId);
+        deleted += deleteAll(reaperRepository::deleteResults, tournamentId);
+        deleted += deleteAll(reaperRepository::deleteMatchParticipants, tournamentId);
+        deleted += deleteAll(reaperRepository::deleteMatches, tournamentId);
+        deleted += deleteAll(reaperRepository::deleteTimeslotTeams, tournamentId);
+        Long scheduleId = reaperRepository.findScheduleId(tournamentId).orElse(null);
+        if (scheduleId != null) {
+            deleted += deleteAll(reaperRepository::deleteTimeslots, scheduleId);
+            deleted += deleteAll(reaperRepository::deleteScheduleTeamMetrics, scheduleId);
+        }
+        deleted += deleteAll(reaperRepository::deleteTeamMembers, tournamentId);
+        deleted += deleteAll(reaperRepository::deleteTeams, tournamentId);
+        reaperRepository.deleteTournament(tournamentId);
+        log.info("Removed deleted tournament {} and {} dependent rows", tournamentId, deleted);
+        return deleted;
+    }
+
+    private long deleteAll(BiFunction<Long, Integer, Integer> step, Long id) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = step.apply(id, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+}
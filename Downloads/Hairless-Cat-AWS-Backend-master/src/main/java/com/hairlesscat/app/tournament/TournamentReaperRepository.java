@@ -0,0 +1,101 @@
+package com.hairlesscat.app.tournament;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+/**
+ * Set based deletion of the rows of soft deleted tournaments, see {@link TournamentReaper}.
+ * <p>
+ * Each delete removes at most {@code limit} rows in its own transaction and returns the number of rows removed, so the
+ * rows of a tournament are removed by calling each step until it returns 0, in the order of the methods below. Every
+ * statement declares the table it changes, so that only the second-level cache regions of that table are evicted.
+ */
+public interface TournamentReaperRepository extends Repository<Tournament, Long> {
+
+	@Query(value = "SELECT tournament_id FROM tournament WHERE deleted ORDER BY tournament_id LIMIT ?1", nativeQuery = true)
+	List<Long> findDeletedTournamentIds(int limit);
+
+	@Query(value = "SELECT tournament_schedule_id FROM tournament WHERE tournament_id = ?1", nativeQuery = true)
+	Optional<Long> findScheduleId(Long tournamentId);
+
+	@Modifying
+	@Transactional
+	@Query(value = "UPDATE match SET match_result_id = NULL WHERE match_id IN (SELECT match_id FROM match " +
+			"WHERE tournament_id = ?1 AND match_result_id IS NOT NULL LIMIT ?2)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "match"))
+	int unlinkResults(Long tournamentId, int limit);
+
+	@Modifying
+	@Transactional
+	@Query(value = "DELETE FROM result WHERE result_id IN (SELECT r.result_id FROM result r " +
+			"JOIN match m ON m.match_id = r.result_match_id WHERE m.tournament_id = ?1 LIMIT ?2)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "result"))
+	int deleteResults(Long tournamentId, int limit);
+
+	@Modifying
+	@Transactional
+	@Query(value = "DELETE FROM match_participant WHERE (match_id, team_id) IN (SELECT p.match_id, p.team_id FROM match_participant p " +
+			"JOIN match m ON m.match_id = p.match_id WHERE m.tournament_id = ?1 LIMIT ?2)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "match_participant"))
+	int deleteMatchParticipants(Long tournamentId, int limit);
+
+	@Modifying
+	@Transactional
+	@Query(value = "DELETE FROM match WHERE match_id IN (SELECT match_id FROM match WHERE tournament_id = ?1 LIMIT ?2)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "match"))
+	int deleteMatches(Long tournamentId, int limit);
+
+	@Modifying
+	@Transactional
+	@Query(value = "DELETE FROM tournamenttimeslot_team_map WHERE ctid IN (SELECT tm.ctid FROM tournamenttimeslot_team_map tm " +
+			"JOIN team t ON t.team_id = tm.team_id WHERE t.tournament_id = ?1 LIMIT ?2)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "tournamenttimeslot_team_map"))
+	int deleteTimeslotTeams(Long tournamentId, int limit);
+
+	@Modifying
+	@Transactional
+	@Query(value = "DELETE FROM tournament_timeslot WHERE tournament_timeslot_id IN (SELECT tournament_timeslot_id FROM tournament_timeslot " +
+			"WHERE schedule_id = ?1 LIMIT ?2)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "tournament_timeslot"))
+	int deleteTimeslots(Long scheduleId, int limit);
+
+	@Modifying
+	@Transactional
+	@Query(value = "DELETE FROM schedule_team_metrics WHERE ctid IN (SELECT ctid FROM schedule_team_metrics WHERE schedule_id = ?1 LIMIT ?2)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "schedule_team_metrics"))
+	int deleteScheduleTeamMetrics(Long scheduleId, int limit);
+
+	@Modifying
+	@Transactional
+	@Query(value = "DELETE FROM team_member WHERE (team_id, user_id) IN (SELECT tm.team_id, tm.user_id FROM team_member tm " +
+			"JOIN team t ON t.team_id = tm.team_id WHERE t.tournament_id = ?1 LIMIT ?2)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "team_member"))
+	int deleteTeamMembers(Long tournamentId, int limit);
+
+	@Modifying
+	@Transactional
+	@Query(value = "DELETE FROM team WHERE team_id IN (SELECT team_id FROM team WHERE tournament_id = ?1 LIMIT ?2)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "team"))
+	int deleteTeams(Long tournamentId, int limit);
+
+	/**
+	 * Last step, removes the tournament row together with its schedule and parameters in one statement, so that they
+	 * are not left behind if the reaper stops in between.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "WITH t AS (DELETE FROM tournament WHERE tournament_id = ?1 AND deleted RETURNING tournament_schedule_id, tournament_parameter_id), " +
+			"s AS (DELETE FROM schedule WHERE schedule_id IN (SELECT tournament_schedule_id FROM t)) " +
+			"DELETE FROM tournament_parameter WHERE tournament_parameter_id IN (SELECT tournament_parameter_id FROM t)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "tournament,schedule,tournament_parameter"))
+	void deleteTournament(Long tournamentId);
+}
@@ -1,13 +1,72 @@
 package com.hairlesscat.app.tournament;
 
+import com.hairlesscat.app.match.MatchStatus;
+import com.hairlesscat.app.schedule.ScheduleStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 @Repository
 public interface TournamentRepository extends JpaRepository<Tournament, Long> {
 
 	List<Tournament> findAllByAdminUser_UserId(String s);
+
+	// Fetch plans of the read paths, one per Views level. The to-one associations are eager, so they are always joined
+	// to avoid one select per row. Collections (bags) are fetched by separate queries, see TournamentService.
+
+	@Query("SELECT t FROM Tournament t JOIN FETCH t.schedule s JOIN FETCH t.tournamentParameter LEFT JOIN FETCH t.adminUser " +
+			"WHERE t.deleted = false AND s.scheduleStatus IN ?1 AND t.tournamentId > ?2 ORDER BY t.tournamentId")
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	List<Tournament> findPageForSummaryView(Collection<ScheduleStatus> scheduleStatuses, Long cursor, Pageable limit);
+
+	@Query("SELECT t FROM Tournament t JOIN FETCH t.schedule s JOIN FETCH t.tournamentParameter LEFT JOIN FETCH t.adminUser " +
+			"WHERE t.deleted = false AND t.adminUser.userId = ?1 AND s.scheduleStatus IN ?2 AND t.tournamentId > ?3 ORDER BY t.tournamentId")
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	List<Tournament> findPageByAdminUserForSummaryView(String userId, Collection<ScheduleStatus> scheduleStatuses, Long cursor, Pageable limit);
+
+	// Counts of the summary view, grouped per tournament so that a page of tournaments takes one query each
+
+	@Query("SELECT tm.tournament.tournamentId AS tournamentId, COUNT(tm) AS teamCount FROM Team tm " +
+			"WHERE tm.tournament.tournamentId IN ?1 GROUP BY tm.tournament.tournamentId")
+	List<TournamentTeamCount> countTeams(Collection<Long> tournamentIds);
+
+	@Query("SELECT m.tournament.tournamentId AS tournamentId, COUNT(m) AS matchCount, " +
+			"SUM(CASE WHEN m.matchStatus IN ?2 THEN 1 ELSE 0 END) AS confirmedMatchCount FROM Match m " +
+			"WHERE m.tournament.tournamentId IN ?1 GROUP BY m.tournament.tournamentId")
+	List<TournamentMatchCount> countMatches(Collection<Long> tournamentIds, Collection<MatchStatus> confirmedStatuses);
+
+	@Query("SELECT DISTINCT t FROM Tournament t LEFT JOIN FETCH t.schedule s LEFT JOIN FETCH s.teamMetrics JOIN FETCH t.tournamentParameter LEFT JOIN FETCH t.adminUser WHERE t.tournamentId = ?1 AND t.deleted = false")
+	Optional<Tournament> findForFullView(Long tournamentId);
+
+	@Query("SELECT DISTINCT t FROM Tournament t LEFT JOIN FETCH t.teams WHERE t.tournamentId = ?1")
+	Optional<Tournament> fetchTeams(Long tournamentId);
+
+	@Query("SELECT DISTINCT t FROM Tournament t LEFT JOIN FETCH t.matches m LEFT JOIN FETCH m.result LEFT JOIN FETCH m.adminUser WHERE t.tournamentId = ?1")
+	Optional<Tournament> fetchMatches(Long tournamentId);
+
+	@Query("SELECT t FROM Tournament t JOIN FETCH t.schedule JOIN FETCH t.tournamentParameter WHERE t.tournamentId IN ?1 AND t.deleted = false")
+	List<Tournament> findAllWithScheduleByTournamentIdIn(Collection<Long> tournamentIds);
+
+	@Query("SELECT t.tournamentId FROM Tournament t WHERE t.deleted = false AND t.schedule.scheduleStatus <> ?1 ORDER BY t.tournamentId")
+	List<Long> findAllTournamentIdsWithScheduleStatusNot(ScheduleStatus scheduleStatus);
+
+	@Query("SELECT t.tournamentId FROM Tournament t WHERE t.deleted = false AND t.adminUser.userId = ?1 AND t.schedule.scheduleStatus <> ?2 ORDER BY t.tournamentId")
+	List<Long> findAllTournamentIdsByAdminUserWithScheduleStatusNot(String userId, ScheduleStatus scheduleStatus);
+
+	// The queries used by TournamentService skip deleted tournaments, see TournamentService.deleteTournament
+	@Modifying
+	@Transactional
+	@Query("UPDATE Tournament t SET t.deleted = true WHERE t.tournamentId = ?1 AND t.deleted = false")
+	int markDeleted(Long tournamentId);
 }
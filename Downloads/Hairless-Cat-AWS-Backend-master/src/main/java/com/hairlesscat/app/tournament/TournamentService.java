@@ -1,11 +1,18 @@
 package com.hairlesscat.app.tournament;
 
+import com.hairlesscat.app.schedule.ScheduleStatus;
 import com.hairlesscat.app.team.Team;
 import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
+import com.hairlesscat.app.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,16 +25,74 @@ public class TournamentService {
         this.tournamentRepository = tournamentRepository;
     }
 
-    public List<Tournament> getTournaments() {
-        return tournamentRepository.findAll();
+    /**
+     * @param userId if not {@code null}, only the tournaments of this admin user are returned.
+     * @param scheduleStatuses only the tournaments whose schedule has one of these statuses are returned.
+     * @return the first {@code size} + 1 matching tournaments with an id greater than {@code cursor},
+     * see {@link KeysetPage}, with their team and match counts.
+     */
+    public List<Tournament> getTournaments(String userId, Collection<ScheduleStatus> scheduleStatuses, long cursor, int size) {
+        Pageable limit = KeysetPage.limit(size);
+        if (scheduleStatuses.isEmpty()) return List.of();
+        List<Tournament> tournaments = userId == null
+                ? tournamentRepository.findPageForSummaryView(scheduleStatuses, cursor, limit)
+                : tournamentRepository.findPageByAdminUserForSummaryView(userId, scheduleStatuses, cursor, limit);
+        setCounts(tournaments);
+        return tournaments;
+    }
+
+    /**
+     * Sets the team and match counts of the summary view with two grouped queries for the whole page, the teams and
+     * matches of the tournaments are not loaded.
+     */
+    private void setCounts(List<Tournament> tournaments) {
+        if (tournaments.isEmpty()) return;
+        Map<Long, Tournament> tournamentsById = new HashMap<>();
+        for (Tournament tournament : tournaments) {
+            tournament.setTeamCount(0L);
+            tournament.setMatchCount(0L);
+            tournament.setConfirmedMatchCount(0L);
+            tournamentsById.put(tournament.getTournamentId(), tournament);
+        }
+        for (TournamentTeamCount count : tournamentRepository.countTeams(tournamentsById.keySet())) {
+            tournamentsById.get(count.getTournamentId()).setTeamCount(count.getTeamCount());
+        }
+        for (TournamentMatchCount count : tournamentRepository.countMatches(tournamentsById.keySet(), Tournament.CONFIRMED_MATCH_STATUSES)) {
+            Tournament tournament = tournamentsById.get(count.getTournamentId());
+            tournament.setMatchCount(count.getMatchCount());
+            tournament.setConfirmedMatchCount(count.getConfirmedMatchCount());
+        }
     }
 
     public Optional<Tournament> getTournamentByTournamentId(Long tournamentId) {
-        return tournamentRepository.findById(tournamentId);
+        return tournamentRepository.findById(tournamentId).filter(tournament -> !tournament.isDeleted());
+    }
+
+    /**
+     * Loads everything {@code Views.TournamentFull} serialises with three queries, whatever the number of teams
+     * and matches: the tournament with its to-one associations and schedule metrics, its teams, and its matches
+     * with their results and admin users. Fetching the collections separately avoids a cartesian product.
+     */
+    @Transactional
+    public Optional<Tournament> getTournamentForFullView(Long tournamentId) {
+        Optional<Tournament> tournament = tournamentRepository.findForFullView(tournamentId);
+        if (tournament.isPresent()) {
+            // Initialise the collections of the managed instance loaded above
+            tournamentRepository.fetchTeams(tournamentId);
+            tournamentRepository.fetchMatches(tournamentId);
+            tournament.get().countTeamsAndMatches();
+        }
+        return tournament;
     }
 
-    public void deleteTournament(Long tournamentId) {
-        tournamentRepository.deleteById(tournamentId);
+    /**
+     * Marks the tournament as deleted, which hides it from the tournament endpoints at once. Its teams, matches and
+     * other rows are removed in the background by {@link TournamentReaper}.
+     *
+     * @return {@code false} if there is no tournament with this id, or if it is already deleted.
+     */
+    public boolean deleteTournament(Long tournamentId) {
+        return tournamentRepository.markDeleted(tournamentId) == 1;
     }
 
     public Tournament createTournament(Tournament tournament) {
@@ -38,9 +103,16 @@ public class TournamentService {
         return tournament.getSchedule().getTimeslots();
     }
 
-    public List<Tournament> getTournamentsByUserId(String userId) {
-        return tournamentRepository.findAllByAdminUser_UserId(userId);
-	}
+    public List<Tournament> getTournamentsWithSchedule(Collection<Long> tournamentIds) {
+        return tournamentRepository.findAllWithScheduleByTournamentIdIn(tournamentIds);
+    }
+
+    public List<Long> getUnscheduledTournamentIds(String userId) {
+        if (userId == null) {
+            return tournamentRepository.findAllTournamentIdsWithScheduleStatusNot(ScheduleStatus.SCHEDULE_GENERATED_SUCCESS);
+        }
+        return tournamentRepository.findAllTournamentIdsByAdminUserWithScheduleStatusNot(userId, ScheduleStatus.SCHEDULE_GENERATED_SUCCESS);
+    }
 
 
     public Tournament addTeamsToTournament(Tournament tournament, List<Team> teams) {
@@ -59,18 +131,4 @@ public class TournamentService {
     public boolean validateTeamInTournament(Tournament tournament, Team team) {
         return tournament.containsTeam(team);
     }
-
-    public List<Tournament> filterForUnscheduledTournaments(List<Tournament> tournaments) {
-        return tournaments
-                .stream()
-                .filter(tournament -> !tournament.getSchedule().isScheduled())
-                .toList();
-    }
-
-	public List<Tournament> filterForScheduledTournaments(List<Tournament> tournaments) {
-		return tournaments
-			.stream()
-			.filter(tournament -> tournament.getSchedule().isScheduled())
-			.toList();
-	}
 }
@@ -0,0 +1,10 @@
+package com.hairlesscat.app.tournament;
+
+/**
+ * Projection of a tournament onto its number of teams, without loading the teams.
+ */
+public interface TournamentTeamCount {
+    Long getTournamentId();
+
+    long getTeamCount();
+}
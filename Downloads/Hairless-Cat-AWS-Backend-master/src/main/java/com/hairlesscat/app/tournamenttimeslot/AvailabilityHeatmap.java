@@ -0,0 +1,27 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of available teams in every timeslot of a schedule, as parallel arrays ordered by start time.
+ * Timeslots that have not been persisted yet (virtual timeslots) have a {@code null} id and no available team.
+ */
+@Data
+@AllArgsConstructor
+public class AvailabilityHeatmap {
+    @JsonProperty("timeslot_ids")
+    private Long[] timeslotIds;
+
+    @JsonProperty("start_times")
+    private LocalDateTime[] startTimes;
+
+    @JsonProperty("end_times")
+    private LocalDateTime[] endTimes;
+
+    @JsonProperty("available_team_counts")
+    private int[] availableTeamCounts;
+}
@@ -24,7 +24,7 @@ public class Timeslot {
     @SequenceGenerator(
             name = "timeslot_sequence_generator",
             sequenceName = "timeslot_sequence_generator",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             generator = "timeslot_sequence_generator",
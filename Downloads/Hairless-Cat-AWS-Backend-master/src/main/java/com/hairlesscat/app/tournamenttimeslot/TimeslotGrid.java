@@ -0,0 +1,169 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+import com.hairlesscat.app.schedule.Schedule;
+import com.hairlesscat.app.schedule.ScheduleRecurrence;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The timeslots of a schedule, computed from its start time, end time and slot duration instead of being stored.
+ * <p>
+ * Without a recurrence the whole schedule is a single window: slot {@code i} starts {@code i * slotDurationMinutes}
+ * after the start of the schedule. With a {@link ScheduleRecurrence}, there is one window per matching day, clipped
+ * to the start and end of the schedule, and slots are only laid out inside the windows. The last slot of a window is
+ * cut short if it would go past the end of the window.
+ * <p>
+ * Only the windows are kept in memory, the timeslots themselves are computed on demand, see {@link #iterator()}.
+ */
+public class TimeslotGrid implements Iterable<TournamentTimeslot> {
+    private final int slotDurationMinutes;
+    private final LocalDateTime[] windowStartTimes;
+    private final LocalDateTime[] windowEndTimes;
+    // firstSlotIndices[w] is the index of the first slot of window w, the last entry is the total number of slots
+    private final int[] firstSlotIndices;
+
+    public TimeslotGrid(LocalDateTime startTime, LocalDateTime endTime, int slotDurationMinutes) {
+        this(startTime, endTime, slotDurationMinutes, null);
+    }
+
+    /**
+     * @param recurrence daily windows to restrict the timeslots to, or {@code null} for one continuous window.
+     * @throws IllegalArgumentException if the slot duration is not positive or the recurrence is not valid.
+     */
+    public TimeslotGrid(LocalDateTime startTime, LocalDateTime endTime, int slotDurationMinutes, ScheduleRecurrence recurrence) {
+        if (slotDurationMinutes <= 0) {
+            throw new IllegalArgumentException("Slot duration must be a positive number of minutes.");
+        }
+        this.slotDurationMinutes = slotDurationMinutes;
+
+        List<LocalDateTime[]> windows = new ArrayList<>();
+        if (recurrence == null) {
+            windows.add(new LocalDateTime[]{startTime, endTime});
+        } else {
+            recurrence.validate();
+            for (LocalDate day = startTime.toLocalDate(); !day.isAfter(endTime.toLocalDate()); day = day.plusDays(1)) {
+                if (!recurrence.getDaysOfWeek().contains(day.getDayOfWeek())) continue;
+                LocalDateTime windowStart = max(startTime, day.atTime(recurrence.getDailyStartTime()));
+                LocalDateTime windowEnd = min(endTime, day.atTime(recurrence.getDailyEndTime()));
+                windows.add(new LocalDateTime[]{windowStart, windowEnd});
+            }
+        }
+
+        windowStartTimes = new LocalDateTime[windows.size()];
+        windowEndTimes = new LocalDateTime[windows.size()];
+        firstSlotIndices = new int[windows.size() + 1];
+        int numSlots = 0;
+        for (int w = 0; w < windows.size(); w++) {
+            windowStartTimes[w] = windows.get(w)[0];
+            windowEndTimes[w] = windows.get(w)[1];
+            firstSlotIndices[w] = numSlots;
+            long minutes = windowMinutes(w);
+            numSlots += (int) ((minutes + slotDurationMinutes - 1) / slotDurationMinutes);
+        }
+        firstSlotIndices[windows.size()] = numSlots;
+    }
+
+    public static TimeslotGrid of(Schedule schedule) {
+        return new TimeslotGrid(
+                schedule.getTournamentStartTime(),
+                schedule.getTournamentEndTime(),
+                schedule.getSlotDurationMinutes(),
+                schedule.getRecurrence());
+    }
+
+    public int size() {
+        return firstSlotIndices[firstSlotIndices.length - 1];
+    }
+
+    public boolean contains(int slotIndex) {
+        return slotIndex >= 0 && slotIndex < size();
+    }
+
+    public LocalDateTime startOf(int slotIndex) {
+        int window = windowOf(slotIndex);
+        return windowStartTimes[window].plusMinutes((long) (slotIndex - firstSlotIndices[window]) * slotDurationMinutes);
+    }
+
+    public LocalDateTime endOf(int slotIndex) {
+        int window = windowOf(slotIndex);
+        LocalDateTime slotEndTime = windowStartTimes[window].plusMinutes((long) (slotIndex - firstSlotIndices[window] + 1) * slotDurationMinutes);
+        return slotEndTime.isAfter(windowEndTimes[window]) ? windowEndTimes[window] : slotEndTime;
+    }
+
+    /**
+     * @return total number of minutes covered by the timeslots.
+     */
+    public long totalMinutes() {
+        long minutes = 0;
+        for (int w = 0; w < windowStartTimes.length; w++) {
+            minutes += windowMinutes(w);
+        }
+        return minutes;
+    }
+
+    /**
+     * @return a new, unsaved tournament timeslot for the slot at {@code slotIndex}.
+     */
+    public TournamentTimeslot createTimeslot(int slotIndex) {
+        TournamentTimeslot timeslot = new TournamentTimeslot(startOf(slotIndex), endOf(slotIndex));
+        timeslot.setSlotIndex(slotIndex);
+        return timeslot;
+    }
+
+    /**
+     * Lazily creates the unsaved timeslots of the grid in order, one at a time.
+     */
+    @Override
+    public Iterator<TournamentTimeslot> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public TournamentTimeslot next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return createTimeslot(next++);
+            }
+        };
+    }
+
+    private long windowMinutes(int window) {
+        LocalDateTime start = windowStartTimes[window];
+        LocalDateTime end = windowEndTimes[window];
+        return start.isBefore(end) ? Duration.between(start, end).toMinutes() : 0;
+    }
+
+    private int windowOf(int slotIndex) {
+        if (!contains(slotIndex)) {
+            throw new IllegalArgumentException(String.format("Slot index %d is outside of the schedule [0, %d).", slotIndex, size()));
+        }
+        // Last window whose first slot is at or before slotIndex, skipping empty windows
+        int window = Arrays.binarySearch(firstSlotIndices, 0, windowStartTimes.length, slotIndex);
+        if (window < 0) {
+            window = -window - 2;
+        }
+        while (firstSlotIndices[window + 1] <= slotIndex) {
+            window++;
+        }
+        return window;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,250 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+import java.util.*;
+
+/**
+ * Immutable set of timeslot ids stored as sorted, disjoint, non adjacent ranges of consecutive ids.
+ * <p>
+ * Timeslots of a schedule are created together, so their ids are (mostly) consecutive and an availability such as
+ * "9 to 17 every day" is a handful of ranges instead of hundreds of ids. Union, intersection and difference are
+ * computed by merging the ranges, without expanding them into ids.
+ * <p>
+ * The encoded form is a comma separated list of ranges, e.g. {@code "3-10,14,20-25"}.
+ */
+public final class TimeslotIdRanges {
+    public static final TimeslotIdRanges EMPTY = new TimeslotIdRanges(new long[0]);
+
+    // bounds[2i] and bounds[2i + 1] are the first and last id (inclusive) of the i-th range
+    private final long[] bounds;
+
+    private TimeslotIdRanges(long[] bounds) {
+        this.bounds = bounds;
+    }
+
+    public static TimeslotIdRanges fromIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return EMPTY;
+        long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        RangeBuilder builder = new RangeBuilder(sorted.length);
+        for (long id : sorted) {
+            builder.add(id, id);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param encoded ranges in the encoded form, {@code null} or blank for no ids.
+     * @throws IllegalArgumentException if {@code encoded} is malformed.
+     */
+    public static TimeslotIdRanges decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) return EMPTY;
+        String[] parts = encoded.split(",");
+        RangeBuilder builder = new RangeBuilder(parts.length);
+        try {
+            for (String part : parts) {
+                int dash = part.indexOf('-', 1);
+                long first = Long.parseLong(dash == -1 ? part.trim() : part.substring(0, dash).trim());
+                long last = dash == -1 ? first : Long.parseLong(part.substring(dash + 1).trim());
+                if (last < first) {
+                    throw new IllegalArgumentException("Invalid timeslot id range: " + part);
+                }
+                builder.add(first, last);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid timeslot id ranges: " + encoded, e);
+        }
+        return builder.build();
+    }
+
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(bounds[i]);
+            if (bounds[i + 1] != bounds[i]) {
+                sb.append('-').append(bounds[i + 1]);
+            }
+        }
+        return sb.toString();
+    }
+
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+
+    public int rangeCount() {
+        return bounds.length / 2;
+    }
+
+    /**
+     * @return number of ids in the set.
+     */
+    public long size() {
+        long size = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            size += bounds[i + 1] - bounds[i] + 1;
+        }
+        return size;
+    }
+
+    public boolean contains(long id) {
+        // Binary search for the last range starting at or before id
+        int lo = 0;
+        int hi = rangeCount() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (bounds[2 * mid] > id) {
+                hi = mid - 1;
+            } else if (bounds[2 * mid + 1] < id) {
+                lo = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public TimeslotIdRanges union(TimeslotIdRanges other) {
+        RangeBuilder builder = new RangeBuilder(rangeCount() + other.rangeCount());
+        int i = 0;
+        int j = 0;
+        while (i < bounds.length || j < other.bounds.length) {
+            // Take the range that starts first, the builder merges overlapping and adjacent ranges
+            if (j >= other.bounds.length || (i < bounds.length && bounds[i] <= other.bounds[j])) {
+                builder.add(bounds[i], bounds[i + 1]);
+                i += 2;
+            } else {
+                builder.add(other.bounds[j], other.bounds[j + 1]);
+                j += 2;
+            }
+        }
+        return builder.build();
+    }
+
+    public TimeslotIdRanges intersection(TimeslotIdRanges other) {
+        RangeBuilder builder = new RangeBuilder(Math.min(rangeCount(), other.rangeCount()));
+        int i = 0;
+        int j = 0;
+        while (i < bounds.length && j < other.bounds.length) {
+            long first = Math.max(bounds[i], other.bounds[j]);
+            long last = Math.min(bounds[i + 1], other.bounds[j + 1]);
+            if (first <= last) {
+                builder.add(first, last);
+            }
+            // Advance the range that ends first
+            if (bounds[i + 1] < other.bounds[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the ids of this set that are not in {@code other}.
+     */
+    public TimeslotIdRanges difference(TimeslotIdRanges other) {
+        RangeBuilder builder = new RangeBuilder(rangeCount() + other.rangeCount());
+        int j = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            long first = bounds[i];
+            long last = bounds[i + 1];
+            // Skip the ranges of other that end before this range
+            while (j < other.bounds.length && other.bounds[j + 1] < first) {
+                j += 2;
+            }
+            int k = j;
+            while (first <= last && k < other.bounds.length && other.bounds[k] <= last) {
+                if (other.bounds[k] > first) {
+                    builder.add(first, other.bounds[k] - 1);
+                }
+                if (other.bounds[k + 1] >= last) {
+                    first = last + 1;
+                } else {
+                    first = other.bounds[k + 1] + 1;
+                }
+                k += 2;
+            }
+            if (first <= last) {
+                builder.add(first, last);
+            }
+        }
+        return builder.build();
+    }
+
+    public long[] toArray() {
+        long[] ids = new long[Math.toIntExact(size())];
+        int n = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            for (long id = bounds[i]; id <= bounds[i + 1]; id++) {
+                ids[n++] = id;
+            }
+        }
+        return ids;
+    }
+
+    public Set<Long> toSet() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < bounds.length; i += 2) {
+            for (long id = bounds[i]; id <= bounds[i + 1]; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    public List<Long> toList() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < bounds.length; i += 2) {
+            for (long id = bounds[i]; id <= bounds[i + 1]; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(bounds, ((TimeslotIdRanges) o).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+
+    /**
+     * Collects ranges given in ascending order of their first id, merging overlapping and adjacent ones.
+     */
+    private static class RangeBuilder {
+        private long[] bounds;
+        private int length;
+
+        RangeBuilder(int expectedRanges) {
+            bounds = new long[Math.max(2, 2 * expectedRanges)];
+        }
+
+        void add(long first, long last) {
+            if (length > 0 && first <= bounds[length - 1] + 1) {
+                bounds[length - 1] = Math.max(bounds[length - 1], last);
+                return;
+            }
+            if (length == bounds.length) {
+                bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+            }
+            bounds[length++] = first;
+            bounds[length++] = last;
+        }
+
+        TimeslotIdRanges build() {
+            return length == 0 ? EMPTY : new TimeslotIdRanges(Arrays.copyOf(bounds, length));
+        }
+    }
+}
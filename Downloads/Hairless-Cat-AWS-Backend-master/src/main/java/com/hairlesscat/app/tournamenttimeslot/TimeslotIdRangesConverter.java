@@ -0,0 +1,20 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores a {@link TimeslotIdRanges} in a single text column using its encoded form.
+ */
+@Converter
+public class TimeslotIdRangesConverter implements AttributeConverter<TimeslotIdRanges, String> {
+    @Override
+    public String convertToDatabaseColumn(TimeslotIdRanges ranges) {
+        return ranges == null ? "" : ranges.encode();
+    }
+
+    @Override
+    public TimeslotIdRanges convertToEntityAttribute(String encoded) {
+        return TimeslotIdRanges.decode(encoded);
+    }
+}
@@ -0,0 +1,138 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Lookup of the persisted timeslots of a schedule by id: the ids are kept sorted in a primitive array, next to the
+ * position of each timeslot in the schedule's timeslot list, and resolved with a binary search instead of scanning
+ * the timeslots of the schedule.
+ * <p>
+ * The index only holds ids and positions, no entities, so it can be cached across requests, see
+ * {@link TimeslotIndexCache}. It is only valid for the timeslot list it was built from.
+ */
+public class TimeslotIndex {
+    private final long[] timeslotIds;
+    private final int[] positions;
+    private final int numTimeslots;
+    // Ids of the first and last timeslot of the list, see isCurrentFor
+    private final Long firstTimeslotId;
+    private final Long lastTimeslotId;
+
+    private TimeslotIndex(long[] timeslotIds, int[] positions, List<TournamentTimeslot> timeslots) {
+        this.timeslotIds = timeslotIds;
+        this.positions = positions;
+        this.numTimeslots = timeslots.size();
+        this.firstTimeslotId = timeslots.isEmpty() ? null : timeslots.get(0).getTimeslotId();
+        this.lastTimeslotId = timeslots.isEmpty() ? null : timeslots.get(timeslots.size() - 1).getTimeslotId();
+    }
+
+    /**
+     * @param timeslots timeslots of a schedule, timeslots without an id (not persisted yet) are skipped.
+     */
+    public static TimeslotIndex of(List<TournamentTimeslot> timeslots) {
+        Integer[] order = new Integer[timeslots.size()];
+        int n = 0;
+        for (int position = 0; position < timeslots.size(); position++) {
+            if (timeslots.get(position).getTimeslotId() != null) {
+                order[n++] = position;
+            }
+        }
+        Arrays.sort(order, 0, n, (a, b) -> Long.compare(timeslots.get(a).getTimeslotId(), timeslots.get(b).getTimeslotId()));
+
+        long[] ids = new long[n];
+        int[] positions = new int[n];
+        for (int k = 0; k < n; k++) {
+            positions[k] = order[k];
+            ids[k] = timeslots.get(order[k]).getTimeslotId();
+        }
+        return new TimeslotIndex(ids, positions, timeslots);
+    }
+
+    /**
+     * Constant time check that {@code timeslots} still has the size and the first and last timeslot of the list the
+     * index was built from. Timeslots are only ever added to a persisted schedule and kept in
+     * {@link TournamentTimeslot#SCHEDULE_ORDER}, so this tells a reloaded timeslot list from one that changed since, as
+     * long as every timeslot of the list was persisted, see {@link #isComplete()}. Use {@link #isValidFor(List)} to
+     * check every position.
+     */
+    public boolean isCurrentFor(List<TournamentTimeslot> timeslots) {
+        return timeslots.size() == numTimeslots
+                && (numTimeslots == 0 || Objects.equals(timeslots.get(0).getTimeslotId(), firstTimeslotId)
+                && Objects.equals(timeslots.get(numTimeslots - 1).getTimeslotId(), lastTimeslotId));
+    }
+
+    /**
+     * @return whether every timeslot of the list the index was built from was persisted, i.e. is in the index.
+     */
+    public boolean isComplete() {
+        return timeslotIds.length == numTimeslots;
+    }
+
+    /**
+     * Checks that every timeslot of {@code timeslots} is still at the position stored for its id, e.g. after the
+     * schedule was reloaded or timeslots were added to it. Linear, but without the sort of {@link #of(List)}.
+     */
+    public boolean isValidFor(List<TournamentTimeslot> timeslots) {
+        if (timeslots.size() != numTimeslots) return false;
+        int numPersisted = 0;
+        for (TournamentTimeslot timeslot : timeslots) {
+            if (timeslot.getTimeslotId() != null) numPersisted++;
+        }
+        if (numPersisted != timeslotIds.length) return false;
+        for (int k = 0; k < timeslotIds.length; k++) {
+            Long timeslotId = timeslots.get(positions[k]).getTimeslotId();
+            if (timeslotId == null || timeslotId != timeslotIds[k]) return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return timeslotIds.length;
+    }
+
+    /**
+     * @return the position of the timeslot in the schedule's timeslot list, or -1 if the schedule has no timeslot with this id.
+     */
+    public int positionOf(Long timeslotId) {
+        if (timeslotId == null) return -1;
+        int k = Arrays.binarySearch(timeslotIds, timeslotId);
+        return k < 0 ? -1 : positions[k];
+    }
+
+    public boolean contains(Long timeslotId) {
+        return positionOf(timeslotId) != -1;
+    }
+
+    public boolean containsAll(Collection<Long> timeslotIds) {
+        for (Long timeslotId : timeslotIds) {
+            if (!contains(timeslotId)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param timeslots the timeslot list the index was built from. If the index turns out to be out of date for it,
+     *                  the timeslots are looked up in an index rebuilt from {@code timeslots} instead.
+     * @return the timeslots with the given ids, in the same order.
+     * @throws IllegalArgumentException if one of the ids is not a timeslot of the schedule.
+     */
+    public List<TournamentTimeslot> getAll(List<TournamentTimeslot> timeslots, Collection<Long> timeslotIds) {
+        List<TournamentTimeslot> result = new ArrayList<>(timeslotIds.size());
+        for (Long timeslotId : timeslotIds) {
+            int position = positionOf(timeslotId);
+            TournamentTimeslot timeslot = position == -1 || position >= timeslots.size() ? null : timeslots.get(position);
+            if (timeslot == null || !timeslotId.equals(timeslot.getTimeslotId())) {
+                if (isValidFor(timeslots)) {
+                    throw new IllegalArgumentException("Timeslot " + timeslotId + " does not correspond to the timeslots in tournament.");
+                }
+                return of(timeslots).getAll(timeslots, timeslotIds);
+            }
+            result.add(timeslot);
+        }
+        return result;
+    }
+}
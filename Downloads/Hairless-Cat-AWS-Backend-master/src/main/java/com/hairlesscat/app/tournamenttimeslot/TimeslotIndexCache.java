@@ -0,0 +1,49 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+import com.hairlesscat.app.schedule.Schedule;
+import com.hairlesscat.app.util.LruCache;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded cache of the {@link TimeslotIndex} of recently used schedules, keyed by schedule id.
+ * Must be invalidated whenever timeslots are added to or removed from a schedule. A cached index is only checked with
+ * the constant time {@link TimeslotIndex#isCurrentFor(List)}, which catches the timeslots another instance added to
+ * the schedule, not a linear scan of the timeslots.
+ */
+@Component
+public class TimeslotIndexCache {
+    private static final int CACHE_SIZE = 256;
+
+    private final LruCache<Long, TimeslotIndex> indices = new LruCache<>(CACHE_SIZE);
+
+    /**
+     * @return the index of the schedule's timeslots, built and cached if missing or out of date.
+     */
+    public TimeslotIndex get(Schedule schedule) {
+        List<TournamentTimeslot> timeslots = schedule.getTimeslots() == null ? new ArrayList<>() : schedule.getTimeslots();
+        if (schedule.getScheduleId() == null) {
+            return TimeslotIndex.of(timeslots);
+        }
+
+        return indices
+                .get(schedule.getScheduleId())
+                .filter(index -> index.isCurrentFor(timeslots))
+                .orElseGet(() -> {
+                    TimeslotIndex index = TimeslotIndex.of(timeslots);
+                    // Timeslots that are not persisted yet get an id without changing the size of the list
+                    if (index.isComplete()) {
+                        indices.put(schedule.getScheduleId(), index);
+                    }
+                    return index;
+                });
+    }
+
+    public void invalidate(Schedule schedule) {
+        if (schedule.getScheduleId() != null) {
+            indices.remove(schedule.getScheduleId());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+/**
+ * Projection of a timeslot onto its id and the id of its schedule.
+ */
+public interface TimeslotScheduleId {
+    Long getTimeslotId();
+
+    Long getScheduleId();
+}
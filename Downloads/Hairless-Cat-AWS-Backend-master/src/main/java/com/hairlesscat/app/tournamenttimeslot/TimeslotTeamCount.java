@@ -0,0 +1,18 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a timeslot onto its times and number of available teams, without loading the teams.
+ */
+public interface TimeslotTeamCount {
+    Long getTimeslotId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+
+    Integer getSlotIndex();
+
+    int getAvailableTeamCount();
+}
@@ -10,18 +10,28 @@ import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
-@Table(name = "tournament_timeslot")
+@Table(name = "tournament_timeslot", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_tournament_timeslot_schedule_slot_index", columnNames = {"schedule_id", "slot_index"})
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @AttributeOverride(name="timeslotId", column=@Column(name="tournament_timeslot_id"))
 public class TournamentTimeslot extends Timeslot {
 
+    // Order of the timeslots of a schedule, see Schedule.timeslots. Not persisted yet timeslots go last among equal start times
+    public static final Comparator<TournamentTimeslot> SCHEDULE_ORDER = Comparator
+            .comparing(TournamentTimeslot::getStartTime)
+            .thenComparing(TournamentTimeslot::getTimeslotId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    // Written with SQL by TournamentTimeslotRepository.addTeam, removeTeam and clearTeams only, see ScheduleService
     @ManyToMany
+    @OrderBy("teamId")
     @JoinTable(
             name = "tournamenttimeslot_team_map",
             joinColumns = @JoinColumn(
@@ -35,7 +45,19 @@ public class TournamentTimeslot extends Timeslot {
     )
     @JsonProperty("available_teams")
     @JsonView(Views.TournamentTimeslot.class)
-    private List<Team> availableTeams = new ArrayList<>();
+    private Set<Team> availableTeams = new HashSet<>();
+
+    // Kept equal to the number of available teams by the same statements, so the heatmap does not load the teams
+    @Column(name = "available_team_count", columnDefinition = "integer not null default 0", updatable = false)
+    @JsonProperty("available_team_count")
+    @JsonView(Views.Timeslot.class)
+    private int availableTeamCount = 0;
+
+    // Position of this timeslot in the schedule's TimeslotGrid
+    @Column(name = "slot_index")
+    @JsonProperty("slot_index")
+    @JsonView(Views.Timeslot.class)
+    private Integer slotIndex;
 
     public TournamentTimeslot(LocalDateTime startTime, LocalDateTime endTime) {
         super(startTime, endTime);
@@ -50,10 +72,6 @@ public class TournamentTimeslot extends Timeslot {
         return availableTeams.contains(team);
     }
 
-    public void addTeam(Team team) {
-        availableTeams.add(team);
-    }
-
     @Override
     @JsonProperty("tournament_timeslot_id")
     public Long getTimeslotId() {
@@ -2,13 +2,74 @@ package com.hairlesscat.app.tournamenttimeslot;
 
 import com.hairlesscat.app.team.Team;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
 @Repository
 public interface TournamentTimeslotRepository extends JpaRepository<TournamentTimeslot, Long> {
 
     List<TournamentTimeslot> findTournamentTimeslotsByAvailableTeamsContaining(Team team);
 
+    @Query("SELECT DISTINCT ts FROM TournamentTimeslot ts LEFT JOIN FETCH ts.availableTeams WHERE ts.schedule.scheduleId IN ?1")
+    List<TournamentTimeslot> findAllWithAvailableTeamsByScheduleIds(Collection<Long> scheduleIds);
+
+    @Query("SELECT ts.timeslotId AS timeslotId, ts.schedule.scheduleId AS scheduleId FROM TournamentTimeslot ts WHERE ts.timeslotId IN ?1")
+    List<TimeslotScheduleId> findScheduleIdsByTimeslotIds(Collection<Long> timeslotIds);
+
+    @Query("SELECT ts.timeslotId AS timeslotId, ts.startTime AS startTime, ts.endTime AS endTime, ts.slotIndex AS slotIndex, ts.availableTeamCount AS availableTeamCount " +
+            "FROM TournamentTimeslot ts WHERE ts.schedule.scheduleId = ?1 ORDER BY ts.startTime, ts.timeslotId")
+    List<TimeslotTeamCount> findTeamCountsByScheduleId(Long scheduleId);
+
+    @Query("SELECT ts FROM TournamentTimeslot ts WHERE ts.schedule.scheduleId = ?1 AND ts.slotIndex IN ?2")
+    List<TournamentTimeslot> findByScheduleIdAndSlotIndices(Long scheduleId, Collection<Integer> slotIndices);
+
+    // Team availability of the timeslots of a schedule. The join rows and available_team_count change together in one
+    // statement, relative to the stored rows, so that concurrent writers cannot undo each other's changes. Callers hold
+    // the lock of ScheduleRepository.lockSchedule.
+
+    @Query(value = "SELECT tm.tournament_timeslot_id FROM tournamenttimeslot_team_map tm " +
+            "JOIN tournament_timeslot ts ON ts.tournament_timeslot_id = tm.tournament_timeslot_id " +
+            "WHERE ts.schedule_id = ?1 AND tm.team_id = ?2", nativeQuery = true)
+    List<Long> findTimeslotIdsOfTeam(Long scheduleId, Long teamId);
+
+    /**
+     * @return the ids of the timeslots the team was not available for yet.
+     */
+    @Transactional
+    @Query(value = "WITH added AS (INSERT INTO tournamenttimeslot_team_map (tournament_timeslot_id, team_id) " +
+            "SELECT tournament_timeslot_id, ?3 FROM tournament_timeslot WHERE schedule_id = ?1 AND tournament_timeslot_id IN ?2 " +
+            "ON CONFLICT DO NOTHING RETURNING tournament_timeslot_id), " +
+            "counted AS (UPDATE tournament_timeslot SET available_team_count = available_team_count + 1 " +
+            "WHERE tournament_timeslot_id IN (SELECT tournament_timeslot_id FROM added)) " +
+            "SELECT tournament_timeslot_id FROM added", nativeQuery = true)
+    List<Long> addTeam(Long scheduleId, Collection<Long> timeslotIds, Long teamId);
+
+    /**
+     * @return the ids of the timeslots the team was available for.
+     */
+    @Transactional
+    @Query(value = "WITH removed AS (DELETE FROM tournamenttimeslot_team_map tm USING tournament_timeslot ts " +
+            "WHERE ts.tournament_timeslot_id = tm.tournament_timeslot_id AND ts.schedule_id = ?1 " +
+            "AND tm.tournament_timeslot_id IN ?2 AND tm.team_id = ?3 RETURNING tm.tournament_timeslot_id), " +
+            "counted AS (UPDATE tournament_timeslot SET available_team_count = available_team_count - 1 " +
+            "WHERE tournament_timeslot_id IN (SELECT tournament_timeslot_id FROM removed)) " +
+            "SELECT tournament_timeslot_id FROM removed", nativeQuery = true)
+    List<Long> removeTeam(Long scheduleId, Collection<Long> timeslotIds, Long teamId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "WITH removed AS (DELETE FROM tournamenttimeslot_team_map tm USING tournament_timeslot ts " +
+            "WHERE ts.tournament_timeslot_id = tm.tournament_timeslot_id AND ts.schedule_id = ?1) " +
+            "UPDATE tournament_timeslot SET available_team_count = 0 WHERE schedule_id = ?1 AND available_team_count <> 0", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "tournament_timeslot,tournamenttimeslot_team_map"))
+    int clearTeams(Long scheduleId);
 }
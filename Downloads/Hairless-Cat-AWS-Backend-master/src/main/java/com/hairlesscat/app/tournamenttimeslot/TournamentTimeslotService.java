@@ -1,13 +1,12 @@
 package com.hairlesscat.app.tournamenttimeslot;
 
+import com.hairlesscat.app.schedule.Schedule;
 import com.hairlesscat.app.team.Team;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class TournamentTimeslotService {
@@ -20,27 +19,138 @@ public class TournamentTimeslotService {
     }
 
     public List<TournamentTimeslot> generateThirtyMinuteTimeslotsFromStartAndEndTime(LocalDateTime tournamentStartTime, LocalDateTime tournamentEndTime) {
+        return generateTimeslotsFromStartAndEndTime(tournamentStartTime, tournamentEndTime, 30);
+    }
 
-        LocalDateTime timeslotStartTime = tournamentStartTime;
-        List<TournamentTimeslot> timeslots = new ArrayList<>();
-        while (timeslotStartTime.isBefore(tournamentEndTime)) {
-            // We assume that each timeslot is only 30mins
-            LocalDateTime timeslotEndtime = timeslotStartTime.plusMinutes(30);
-            if (timeslotEndtime.isAfter(tournamentEndTime)) {
-                timeslotEndtime = tournamentEndTime;
-            }
-            TournamentTimeslot timeslot = new TournamentTimeslot(timeslotStartTime, timeslotEndtime);
+    /**
+     * Splits the period between the start and end time into consecutive timeslots of {@code slotDurationMinutes}.
+     * The last timeslot is cut short if it would go past the end time. The timeslots are not persisted.
+     */
+    public List<TournamentTimeslot> generateTimeslotsFromStartAndEndTime(LocalDateTime tournamentStartTime, LocalDateTime tournamentEndTime, int slotDurationMinutes) {
+        return generateTimeslots(new TimeslotGrid(tournamentStartTime, tournamentEndTime, slotDurationMinutes));
+    }
+
+    /**
+     * Generates the unsaved timeslots of the schedule, only inside the daily windows of its recurrence if it has one.
+     *
+     * @throws IllegalArgumentException if the slot duration or the recurrence of the schedule is not valid.
+     */
+    public List<TournamentTimeslot> generateTimeslots(Schedule schedule) {
+        return generateTimeslots(TimeslotGrid.of(schedule));
+    }
 
+    private static List<TournamentTimeslot> generateTimeslots(TimeslotGrid grid) {
+        List<TournamentTimeslot> timeslots = new ArrayList<>(grid.size());
+        for (TournamentTimeslot timeslot : grid) {
             timeslots.add(timeslot);
-            timeslotStartTime = timeslotEndtime;
         }
         return timeslots;
     }
 
+    /**
+     * Returns every timeslot of the schedule. For a schedule with virtual timeslots, the slots that have not been
+     * persisted yet are computed from the schedule's {@link TimeslotGrid} and returned without an id.
+     */
+    public List<TournamentTimeslot> getAllTimeslots(Schedule schedule) {
+        // Load the available teams of all timeslots with one query instead of one per timeslot
+        if (schedule.getScheduleId() != null) {
+            tournamentTimeslotRepository.findAllWithAvailableTeamsByScheduleIds(List.of(schedule.getScheduleId()));
+        }
+
+        if (!schedule.isVirtualTimeslots()) {
+            return schedule.getTimeslots();
+        }
+
+        TimeslotGrid grid = TimeslotGrid.of(schedule);
+        TournamentTimeslot[] timeslots = new TournamentTimeslot[grid.size()];
+        for (TournamentTimeslot timeslot : schedule.getTimeslots()) {
+            if (timeslot.getSlotIndex() != null && grid.contains(timeslot.getSlotIndex())) {
+                timeslots[timeslot.getSlotIndex()] = timeslot;
+            }
+        }
+        for (int i = 0; i < timeslots.length; i++) {
+            if (timeslots[i] == null) {
+                timeslots[i] = grid.createTimeslot(i);
+            }
+        }
+        return Arrays.asList(timeslots);
+    }
+
+    /**
+     * Reads the available team counters of the schedule's timeslots, without loading the available teams.
+     * For a schedule with virtual timeslots, every slot of its {@link TimeslotGrid} is included.
+     */
+    public AvailabilityHeatmap getAvailabilityHeatmap(Schedule schedule) {
+        List<TimeslotTeamCount> counts = tournamentTimeslotRepository.findTeamCountsByScheduleId(schedule.getScheduleId());
+
+        if (!schedule.isVirtualTimeslots()) {
+            int n = counts.size();
+            Long[] timeslotIds = new Long[n];
+            LocalDateTime[] startTimes = new LocalDateTime[n];
+            LocalDateTime[] endTimes = new LocalDateTime[n];
+            int[] availableTeamCounts = new int[n];
+            for (int k = 0; k < n; k++) {
+                TimeslotTeamCount count = counts.get(k);
+                timeslotIds[k] = count.getTimeslotId();
+                startTimes[k] = count.getStartTime();
+                endTimes[k] = count.getEndTime();
+                availableTeamCounts[k] = count.getAvailableTeamCount();
+            }
+            return new AvailabilityHeatmap(timeslotIds, startTimes, endTimes, availableTeamCounts);
+        }
+
+        TimeslotGrid grid = TimeslotGrid.of(schedule);
+        Long[] timeslotIds = new Long[grid.size()];
+        LocalDateTime[] startTimes = new LocalDateTime[grid.size()];
+        LocalDateTime[] endTimes = new LocalDateTime[grid.size()];
+        int[] availableTeamCounts = new int[grid.size()];
+        for (int i = 0; i < grid.size(); i++) {
+            startTimes[i] = grid.startOf(i);
+            endTimes[i] = grid.endOf(i);
+        }
+        for (TimeslotTeamCount count : counts) {
+            if (count.getSlotIndex() != null && grid.contains(count.getSlotIndex())) {
+                timeslotIds[count.getSlotIndex()] = count.getTimeslotId();
+                availableTeamCounts[count.getSlotIndex()] = count.getAvailableTeamCount();
+            }
+        }
+        return new AvailabilityHeatmap(timeslotIds, startTimes, endTimes, availableTeamCounts);
+    }
+
     public List<TournamentTimeslot> getTimeslotsForTeam(Team team) {
         return tournamentTimeslotRepository.findTournamentTimeslotsByAvailableTeamsContaining(team);
     }
 
+    /**
+     * Loads the timeslots of several schedules, with their available teams, in a single query.
+     *
+     * @return map of schedule id to the timeslots of that schedule, ordered by start time.
+     */
+    public Map<Long, List<TournamentTimeslot>> getTimeslotsWithAvailableTeamsBySchedule(Collection<Long> scheduleIds) {
+        Map<Long, List<TournamentTimeslot>> timeslotsBySchedule = new HashMap<>();
+        for (TournamentTimeslot timeslot : tournamentTimeslotRepository.findAllWithAvailableTeamsByScheduleIds(scheduleIds)) {
+            timeslotsBySchedule
+                    .computeIfAbsent(timeslot.getSchedule().getScheduleId(), scheduleId -> new ArrayList<>())
+                    .add(timeslot);
+        }
+        timeslotsBySchedule.values().forEach(timeslots -> timeslots.sort(TournamentTimeslot.SCHEDULE_ORDER));
+        return timeslotsBySchedule;
+    }
+
+    /**
+     * Looks up the schedule of many timeslots with a single query.
+     *
+     * @return map of timeslot id to schedule id. Ids that do not exist are missing from the map.
+     */
+    public Map<Long, Long> getScheduleIdsOfTimeslots(Collection<Long> timeslotIds) {
+        Map<Long, Long> scheduleIds = new HashMap<>();
+        if (timeslotIds.isEmpty()) return scheduleIds;
+        for (TimeslotScheduleId timeslot : tournamentTimeslotRepository.findScheduleIdsByTimeslotIds(timeslotIds)) {
+            scheduleIds.put(timeslot.getTimeslotId(), timeslot.getScheduleId());
+        }
+        return scheduleIds;
+    }
+
 	public Optional<TournamentTimeslot> getTournamentTimeslotsById(Long ts) {
 		return tournamentTimeslotRepository.findById(ts);
 	}
@@ -3,7 +3,7 @@ package com.hairlesscat.app.user;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.hairlesscat.app.util.CopyClass;
-import com.hairlesscat.app.util.ResponseWrapper;
+import com.hairlesscat.app.util.KeysetPage;
 import com.hairlesscat.app.view.Views;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,9 +38,15 @@ public class UserController {
 
     @GetMapping
     @JsonView(Views.UserSummary.class)
-    public Map<String, List<User>> getUsers() {
-        List<User> users = userService.getUsers();
-        return ResponseWrapper.wrapResponse("users", users);
+    public Map<String, Object> getUsers(
+            @RequestParam(value = "cursor", defaultValue = "") String cursor,
+            @RequestParam(value = "size", defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size) {
+        try {
+            List<User> users = userService.getUsers(cursor, size);
+            return KeysetPage.wrapResponse("users", users, size, User::getUserId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @PostMapping
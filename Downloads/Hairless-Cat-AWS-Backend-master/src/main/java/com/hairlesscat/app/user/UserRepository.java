@@ -1,16 +1,21 @@
 package com.hairlesscat.app.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
 
+    @Query("SELECT u FROM User u WHERE u.userId > ?1 ORDER BY u.userId")
+    List<User> findPage(String cursor, Pageable limit);
+
     @Query(value = "SELECT * FROM USERS WHERE EMAIL = ?1", nativeQuery = true)
     Optional<User> findUserByEmail(String email);
 
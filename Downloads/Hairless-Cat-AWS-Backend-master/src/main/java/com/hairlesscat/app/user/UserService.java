@@ -1,5 +1,6 @@
 package com.hairlesscat.app.user;
 
+import com.hairlesscat.app.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -26,8 +27,11 @@ public class UserService {
         return userRepository.existsById(userId);
     }
 
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    /**
+     * @return the first {@code size} + 1 users with an id after {@code cursor}, see {@link KeysetPage}.
+     */
+    public List<User> getUsers(String cursor, int size) {
+        return userRepository.findPage(cursor, KeysetPage.limit(size));
     }
 
     public User createUser(User user) {
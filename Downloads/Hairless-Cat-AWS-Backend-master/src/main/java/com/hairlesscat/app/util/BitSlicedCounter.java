@@ -0,0 +1,105 @@
+package com.hairlesscat.app.util;
+
+import java.util.BitSet;
+
+/**
+ * Counts, for every position of a fixed size bit vector, how many of the added bitsets have that position set, less
+ * the removed bitsets that have it set.
+ * <p>
+ * The counts are stored bit-sliced: plane {@code b} holds bit {@code b} of the count of every position, packed 64
+ * positions per word. Adding or removing a bitset is a ripple carry addition or subtraction over the planes and a
+ * threshold test is a bitwise comparison, so all of them work on 64 positions per operation instead of one boxed
+ * counter per position.
+ */
+public class BitSlicedCounter {
+    private final int size;
+    private final int numWords;
+    private final long[][] planes;
+
+    /**
+     * @param size number of positions.
+     * @param maxCount maximum count of a position.
+     */
+    public BitSlicedCounter(int size, int maxCount) {
+        this.size = size;
+        this.numWords = (size + 63) >>> 6;
+        int numPlanes = 32 - Integer.numberOfLeadingZeros(Math.max(1, maxCount));
+        this.planes = new long[numPlanes][numWords];
+    }
+
+    /**
+     * Increments the count of every position set in {@code bits}.
+     *
+     * @throws IllegalStateException if a count overflows, the counter must not be used afterwards.
+     */
+    public void add(BitSet bits) {
+        long[] words = bits.toLongArray();
+        for (int w = 0; w < Math.min(words.length, numWords); w++) {
+            long carry = words[w];
+            for (int b = 0; b < planes.length && carry != 0; b++) {
+                long plane = planes[b][w];
+                planes[b][w] = plane ^ carry;
+                carry &= plane;
+            }
+            if (carry != 0) {
+                throw new IllegalStateException("Bit sliced counter is full.");
+            }
+        }
+    }
+
+    /**
+     * Decrements the count of every position set in {@code bits}, e.g. to take back a bitset added before.
+     *
+     * @throws IllegalStateException if a count drops below zero, the counter must not be used afterwards.
+     */
+    public void remove(BitSet bits) {
+        long[] words = bits.toLongArray();
+        for (int w = 0; w < Math.min(words.length, numWords); w++) {
+            long borrow = words[w];
+            for (int b = 0; b < planes.length && borrow != 0; b++) {
+                long plane = planes[b][w];
+                planes[b][w] = plane ^ borrow;
+                borrow &= ~plane;
+            }
+            if (borrow != 0) {
+                throw new IllegalStateException("Bit sliced counter has a negative count.");
+            }
+        }
+    }
+
+    /**
+     * @return the positions whose count is greater than or equal to {@code threshold}.
+     */
+    public BitSet atLeast(int threshold) {
+        if (threshold <= 0) {
+            BitSet all = new BitSet(size);
+            all.set(0, size);
+            return all;
+        }
+        if (threshold > maxCount()) {
+            return new BitSet();
+        }
+
+        long[] result = new long[numWords];
+        for (int w = 0; w < numWords; w++) {
+            // Compare the counts with the threshold from the most significant plane down
+            long greater = 0;
+            long equal = -1L;
+            for (int b = planes.length - 1; b >= 0; b--) {
+                long plane = planes[b][w];
+                if (((threshold >>> b) & 1) == 1) {
+                    equal &= plane;
+                } else {
+                    greater |= equal & plane;
+                    equal &= ~plane;
+                }
+            }
+            result[w] = greater | equal;
+        }
+        return BitSet.valueOf(result);
+    }
+
+    private int maxCount() {
+        return (1 << planes.length) - 1;
+    }
+}
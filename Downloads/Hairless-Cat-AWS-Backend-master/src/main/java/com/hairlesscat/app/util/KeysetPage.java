@@ -0,0 +1,48 @@
+package com.hairlesscat.app.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination of the list endpoints. A page holds the rows whose primary key is greater than the cursor,
+ * in ascending order of the key, so every page is an index range scan however deep it is. The key of the last row
+ * of a page is the cursor of the next one.
+ * <p>
+ * Repositories are asked for one row more than the page size, that extra row tells whether there is a next page.
+ */
+public class KeysetPage {
+    public static final int DEFAULT_SIZE = 100;
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * @return the limit of the query of a page of {@code size} rows.
+     * @throws IllegalArgumentException if {@code size} is not between 1 and {@link #MAX_SIZE}.
+     */
+    public static Pageable limit(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SIZE + ", got " + size + ".");
+        }
+        return PageRequest.of(0, size + 1);
+    }
+
+    /**
+     * @param rows the rows returned by a query limited by {@link #limit(int)}.
+     * @param keyOf the primary key of a row.
+     * @return the page under {@code header} and the cursor of the next page under {@code next_cursor},
+     * {@code null} on the last page.
+     */
+    public static <T> Map<String, Object> wrapResponse(String header, List<T> rows, int size, Function<T, ?> keyOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> page = hasNext ? rows.subList(0, size) : rows;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put(header, page);
+        response.put("next_cursor", hasNext ? keyOf.apply(page.get(size - 1)) : null);
+        return response;
+    }
+}
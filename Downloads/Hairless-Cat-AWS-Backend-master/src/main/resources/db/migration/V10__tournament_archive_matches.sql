@@ -0,0 +1,27 @@
+-- Matches and results of the archived tournaments, served by the match and result endpoints once the tournament has
+-- been removed from the hot tables. tournament_archive_match finds the archive of a match or result id.
+alter table tournament_archive
+    add column matches TEXT not null default '[]',
+    add column results TEXT not null default '[]';
+
+create table tournament_archive_match (
+    tournament_id int8 not null references tournament_archive (tournament_id) on delete cascade,
+    match_id int8 not null,
+    result_id int8,
+    primary key (match_id)
+);
+
+create index idx_tournament_archive_match_tournament_id on tournament_archive_match (tournament_id);
+create index idx_tournament_archive_match_result_id on tournament_archive_match (result_id);
+
+-- Tournaments archived before: their matches are taken from the tournament snapshot, which holds no results
+update tournament_archive
+set matches = (tournament_full::jsonb -> 'matches')::text
+where jsonb_typeof(tournament_full::jsonb -> 'matches') = 'array';
+
+insert into tournament_archive_match (tournament_id, match_id)
+select a.tournament_id, (m.match ->> 'match_id')::int8
+from tournament_archive a
+cross join lateral jsonb_array_elements(a.matches::jsonb) as m(match)
+where m.match ->> 'match_id' is not null
+on conflict do nothing;
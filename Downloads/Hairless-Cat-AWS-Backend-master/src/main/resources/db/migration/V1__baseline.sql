@@ -0,0 +1,251 @@
+-- Schema of the entities at the time migrations were introduced, generated once with Hibernate's SchemaExport. It is
+-- not the schema older versions of the application generated: it already has the columns added since then (e.g. the
+-- schedule metrics, recurrence and virtual timeslots, the member availability ranges) and sequences of 50.
+-- Databases created by older versions are baselined at this version (spring.flyway.baseline-on-migrate), V2 then
+-- brings their tables up to this schema.
+
+create sequence match_sequence_generator start 1 increment 50;
+create sequence result_sequence_generator start 1 increment 50;
+create sequence schedule_sequence_generator start 1 increment 1;
+create sequence team_sequence start 1 increment 1;
+create sequence timeslot_sequence_generator start 1 increment 50;
+create sequence tournament_param_sequence start 1 increment 1;
+create sequence tournament_sequence start 1 increment 1;
+
+create table match (
+    match_id int8 not null,
+    match_end_time timestamp,
+    match_start_time timestamp,
+    match_status int4,
+    match_admin_user_id TEXT,
+    match_result_id int8,
+    schedule_id int8,
+    tournament_id int8,
+    primary key (match_id)
+);
+
+create table match_team_status_map (
+    match_id int8 not null,
+    team_status int4,
+    team_id int8 not null,
+    primary key (match_id, team_id)
+);
+
+create table match_teams (
+    team_id int8 not null,
+    match_id int8 not null
+);
+
+create table result (
+    result_id int8 not null,
+    result_match_id int8,
+    primary key (result_id)
+);
+
+create table result_teams (
+    team_id int8 not null,
+    result_id int8 not null
+);
+
+create table schedule (
+    schedule_id int8 not null,
+    metrics_back_to_back_count int4,
+    metrics_makespan_minutes int8,
+    metrics_max_idle_minutes int8,
+    metrics_slot_utilisation float8,
+    metrics_total_idle_minutes int8,
+    recurrence_daily_end_time time,
+    recurrence_daily_start_time time,
+    recurrence_days_of_week varchar(255),
+    schedule_seed int8,
+    schedule_status int4,
+    schedule_status_error_message varchar(255),
+    slot_duration_minutes int4,
+    tournament_end_time timestamp,
+    tournament_start_time timestamp,
+    virtual_timeslots boolean,
+    primary key (schedule_id)
+);
+
+create table schedule_team_metrics (
+    schedule_id int8 not null,
+    back_to_back_count int4,
+    match_count int4,
+    max_idle_minutes int8,
+    team_id int8,
+    total_idle_minutes int8
+);
+
+create table team (
+    team_id int8 not null,
+    team_name TEXT,
+    tournament_id int8,
+    primary key (team_id)
+);
+
+create table team_member (
+    team_id int8 not null,
+    user_id varchar(255) not null,
+    indicated_availabilities boolean,
+    is_leader boolean,
+    user_indicated_timeslot_ranges TEXT,
+    primary key (team_id, user_id)
+);
+
+create table tournament (
+    tournament_id int8 not null,
+    tournament_description TEXT,
+    tournament_name TEXT,
+    status TEXT not null,
+    tournament_admin_user_id TEXT,
+    tournament_schedule_id int8,
+    tournament_parameter_id int8,
+    primary key (tournament_id)
+);
+
+create table tournament_parameter (
+    tournament_parameter_id int8 not null,
+    match_duration_minutes int4,
+    max_number_of_players_per_team int4 not null,
+    max_number_of_teams int4 not null,
+    min_number_of_players_per_team int4 not null,
+    min_number_of_teams int4 not null,
+    tournament_style int4,
+    tournament_type int4,
+    primary key (tournament_parameter_id)
+);
+
+create table tournament_timeslot (
+    tournament_timeslot_id int8 not null,
+    end_time timestamp,
+    start_time timestamp,
+    available_team_count integer not null default 0,
+    slot_index int4,
+    schedule_id int8,
+    primary key (tournament_timeslot_id)
+);
+
+create table tournamenttimeslot_team_map (
+    tournament_timeslot_id int8 not null,
+    team_id int8 not null
+);
+
+create table users (
+    user_id TEXT not null,
+    company TEXT,
+    department TEXT,
+    email TEXT,
+    first_name TEXT,
+    is_admin boolean,
+    last_name TEXT,
+    phone_number TEXT,
+    primary key (user_id)
+);
+
+alter table if exists users
+    add constraint user_email_unique unique (email);
+
+alter table if exists match
+    add constraint FKhnireoo3uy04qsvwax6tinl0x
+    foreign key (match_admin_user_id)
+    references users;
+
+alter table if exists match
+    add constraint FK1b9kft8cxla387dd9kvbqw9vs
+    foreign key (match_result_id)
+    references result;
+
+alter table if exists match
+    add constraint FKjqq8v5f4i52uoqoiduwgiayt9
+    foreign key (schedule_id)
+    references schedule;
+
+alter table if exists match
+    add constraint FK3o2flmlku9l351xpvof8aw8oi
+    foreign key (tournament_id)
+    references tournament;
+
+alter table if exists match_team_status_map
+    add constraint FK2du7pi8nrj70qsyxu4et7rbve
+    foreign key (team_id)
+    references team;
+
+alter table if exists match_team_status_map
+    add constraint FKtd8hy9quhtvcdyyjvu2bgx6tv
+    foreign key (match_id)
+    references match;
+
+alter table if exists match_teams
+    add constraint FKdngxcrtwf9xtrrfj8ahb8ccul
+    foreign key (match_id)
+    references team;
+
+alter table if exists match_teams
+    add constraint FKlybggf8jkpf4hq6a9278u0ar8
+    foreign key (team_id)
+    references match;
+
+alter table if exists result
+    add constraint FKrcfqoshuau0awayr1dfdr3nm3
+    foreign key (result_match_id)
+    references match;
+
+alter table if exists result_teams
+    add constraint FK5o8eamnqpicj4hbj7p0yhteoj
+    foreign key (result_id)
+    references team;
+
+alter table if exists result_teams
+    add constraint FKaiuhve0ybrqjohhyhbq3fd4qe
+    foreign key (team_id)
+    references result;
+
+alter table if exists schedule_team_metrics
+    add constraint FKbof44bnj5epqgvmjnsst5ayk9
+    foreign key (schedule_id)
+    references schedule;
+
+alter table if exists team
+    add constraint FKpyo6uq99yep4x5hj1ulkwpvso
+    foreign key (tournament_id)
+    references tournament;
+
+alter table if exists team_member
+    add constraint FK9ubp79ei4tv4crd0r9n7u5i6e
+    foreign key (team_id)
+    references team;
+
+alter table if exists team_member
+    add constraint FKcwlc6ivvbf5svve5fmbg71vks
+    foreign key (user_id)
+    references users;
+
+alter table if exists tournament
+    add constraint FKom7hes7rfavo58ckaupsnojl1
+    foreign key (tournament_admin_user_id)
+    references users;
+
+alter table if exists tournament
+    add constraint FKe30vo5wlon2ud5785gp8hb7e9
+    foreign key (tournament_schedule_id)
+    references schedule;
+
+alter table if exists tournament
+    add constraint FKtlrfsijxpjrowpw1jdathmsh8
+    foreign key (tournament_parameter_id)
+    references tournament_parameter;
+
+alter table if exists tournament_timeslot
+    add constraint FKpsqjgnf13mdmgy5x5hm7pwjla
+    foreign key (schedule_id)
+    references schedule;
+
+alter table if exists tournamenttimeslot_team_map
+    add constraint FKiie0qobf416avkr4b2ro3jx8u
+    foreign key (team_id)
+    references team;
+
+alter table if exists tournamenttimeslot_team_map
+    add constraint FKo1dm45iyf1x781n4xb9fp69at
+    foreign key (tournament_timeslot_id)
+    references tournament_timeslot;
@@ -0,0 +1,80 @@
+-- Brings databases whose schema was generated by an older version of the application up to the V1 schema.
+-- Every statement is a no-op on a database created by V1.
+
+-- Sequences of the entities written in bulk allocate blocks of 50 ids (pooled-lo)
+alter sequence match_sequence_generator increment by 50;
+alter sequence result_sequence_generator increment by 50;
+alter sequence timeslot_sequence_generator increment by 50;
+
+alter table schedule
+    add column if not exists metrics_back_to_back_count int4,
+    add column if not exists metrics_makespan_minutes int8,
+    add column if not exists metrics_max_idle_minutes int8,
+    add column if not exists metrics_slot_utilisation float8,
+    add column if not exists metrics_total_idle_minutes int8,
+    add column if not exists recurrence_daily_end_time time,
+    add column if not exists recurrence_daily_start_time time,
+    add column if not exists recurrence_days_of_week varchar(255),
+    add column if not exists schedule_seed int8,
+    add column if not exists slot_duration_minutes int4,
+    add column if not exists virtual_timeslots boolean;
+
+update schedule set virtual_timeslots = false where virtual_timeslots is null;
+
+create table if not exists schedule_team_metrics (
+    schedule_id int8 not null references schedule,
+    back_to_back_count int4,
+    match_count int4,
+    max_idle_minutes int8,
+    team_id int8,
+    total_idle_minutes int8
+);
+
+alter table tournament_parameter
+    add column if not exists match_duration_minutes int4;
+
+alter table tournament_timeslot
+    add column if not exists available_team_count integer not null default 0,
+    add column if not exists slot_index int4;
+
+-- The number of available teams of a timeslot is maintained by the application, count the existing rows once
+update tournament_timeslot t
+set available_team_count = c.team_count
+from (select tournament_timeslot_id, count(*) as team_count
+      from tournamenttimeslot_team_map
+      group by tournament_timeslot_id) c
+where c.tournament_timeslot_id = t.tournament_timeslot_id
+  and t.available_team_count <> c.team_count;
+
+alter table team_member
+    add column if not exists user_indicated_timeslot_ranges TEXT;
+
+-- Member availabilities used to be stored one row per timeslot id. Encode them as ranges of consecutive ids,
+-- e.g. "3-10,14", see TimeslotIdRanges.
+do $$
+begin
+    if to_regclass('team_member_user_indicated_timeslot_ids') is not null then
+        update team_member tm
+        set user_indicated_timeslot_ranges = r.ranges
+        from (select team_member_team_id,
+                     team_member_user_id,
+                     string_agg(case when first_id = last_id then first_id::text else first_id || '-' || last_id end,
+                                ',' order by first_id) as ranges
+              from (select team_member_team_id, team_member_user_id, min(id) as first_id, max(id) as last_id
+                    from (select team_member_team_id,
+                                 team_member_user_id,
+                                 id,
+                                 id - row_number() over (partition by team_member_team_id, team_member_user_id order by id) as run
+                          from (select distinct team_member_team_id, team_member_user_id, user_indicated_timeslot_ids as id
+                                from team_member_user_indicated_timeslot_ids
+                                where user_indicated_timeslot_ids is not null) ids) runs
+                    group by team_member_team_id, team_member_user_id, run) ranges
+              group by team_member_team_id, team_member_user_id) r
+        where tm.team_id = r.team_member_team_id
+          and tm.user_id = r.team_member_user_id
+          and tm.user_indicated_timeslot_ranges is null;
+
+        drop table team_member_user_indicated_timeslot_ids;
+    end if;
+end
+$$;
@@ -0,0 +1,19 @@
+-- Indexes for the lookups run on every request. Each one is checked by QueryPlanTests.
+
+-- Teams of a tournament
+create index idx_team_tournament_id on team (tournament_id);
+
+-- Teams of a user, and teams a user leads (TeamMemberRepository), answered from the index alone
+create index idx_team_member_user_id_is_leader on team_member (user_id, is_leader) include (team_id);
+
+-- Matches of a team with a given status (MatchRepository.findAllByTeamWithTeamStatus)
+create index idx_match_team_status_map_team_id_team_status on match_team_status_map (team_id, team_status) include (match_id);
+
+-- Timeslots of a schedule
+create index idx_tournament_timeslot_schedule_id on tournament_timeslot (schedule_id);
+
+-- Result of a match
+create index idx_result_result_match_id on result (result_match_id);
+
+-- Tournaments of an admin user
+create index idx_tournament_tournament_admin_user_id on tournament (tournament_admin_user_id);
@@ -0,0 +1,2 @@
+-- Optimistic locking of matches, incremented by the acceptance of a match
+alter table match add column version int8 not null default 0;
@@ -0,0 +1,10 @@
+-- Tournaments are marked as deleted and removed in the background by TournamentReaper
+alter table tournament add column deleted boolean not null default false;
+create index idx_tournament_deleted on tournament (tournament_id) where deleted;
+
+-- Lookups of the reaper deletes that have no index yet
+create index idx_match_tournament_id on match (tournament_id);
+create index idx_match_teams_team_id on match_teams (team_id);
+create index idx_result_teams_team_id on result_teams (team_id);
+create index idx_tournamenttimeslot_team_map_team_id on tournamenttimeslot_team_map (team_id);
+create index idx_schedule_team_metrics_schedule_id on schedule_team_metrics (schedule_id);
@@ -0,0 +1,15 @@
+-- JSON snapshots of the completed tournaments moved out of the hot tables by TournamentArchiver
+create table tournament_archive (
+    tournament_id int8 not null,
+    tournament_admin_user_id TEXT,
+    archived_at timestamp not null,
+    tournament_summary TEXT not null,
+    tournament_full TEXT not null,
+    timeslots TEXT not null,
+    primary key (tournament_id)
+);
+
+create index idx_tournament_archive_tournament_admin_user_id on tournament_archive (tournament_admin_user_id, tournament_id);
+
+-- Completed tournaments still in the hot tables, the status is stored as the ordinal of Status
+create index idx_tournament_completed on tournament (tournament_id) where status = '1' and not deleted;
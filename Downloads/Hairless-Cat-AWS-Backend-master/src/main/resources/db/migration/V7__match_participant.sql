@@ -0,0 +1,58 @@
+-- One row per team of a match, replacing match_teams (teams of a match), match_team_status_map (their
+-- confirmation statuses) and result_teams (the ranked teams of the result of a match)
+create table match_participant (
+    match_id int8 not null,
+    team_id int8 not null,
+    status int4 not null,
+    rank int4,
+    score int4,
+    primary key (match_id, team_id)
+);
+
+alter table if exists match_participant
+    add constraint fk_match_participant_match_id
+    foreign key (match_id)
+    references match;
+
+alter table if exists match_participant
+    add constraint fk_match_participant_team_id
+    foreign key (team_id)
+    references team;
+
+-- Matches of a team, optionally with a given status (MatchRepository.findAllByParticipatingTeam,
+-- findAllByTeamWithTeamStatus)
+create index idx_match_participant_team_id_status on match_participant (team_id, status) include (match_id);
+
+-- The join columns of match_teams and result_teams are swapped: match_teams.team_id holds the match id and
+-- result_teams.team_id the result id
+insert into match_participant (match_id, team_id, status)
+select match_id, team_id, coalesce(team_status, 0)
+from match_team_status_map;
+
+insert into match_participant (match_id, team_id, status)
+select distinct mt.team_id, mt.match_id, 0
+from match_teams mt
+on conflict (match_id, team_id) do nothing;
+
+-- result_teams has no order column, the ranks follow the order in which the rows were inserted. Ranked teams that
+-- did not play in the match are dropped.
+update match_participant p
+set rank = ranked.rank
+from (
+    select r.result_match_id as match_id, rt.result_id as team_id,
+           row_number() over (partition by rt.team_id order by rt.ctid) as rank
+    from result_teams rt
+    join result r on r.result_id = rt.team_id
+) ranked
+where p.match_id = ranked.match_id and p.team_id = ranked.team_id;
+
+-- The results of a team are now found through its matches, link the results that were never set on their match
+update match m
+set match_result_id = r.result_id
+from result r
+where r.result_match_id = m.match_id and m.match_result_id is null
+  and r.result_id = (select min(result_id) from result where result_match_id = m.match_id);
+
+drop table match_team_status_map;
+drop table match_teams;
+drop table result_teams;
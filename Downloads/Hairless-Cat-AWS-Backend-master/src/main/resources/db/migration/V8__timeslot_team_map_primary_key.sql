@@ -0,0 +1,22 @@
+-- The team availability of a timeslot is a set, written with INSERT ... ON CONFLICT DO NOTHING
+-- (TournamentTimeslotRepository.addTeam). Remove the duplicate rows concurrent writers may have left.
+delete from tournamenttimeslot_team_map a
+using tournamenttimeslot_team_map b
+where a.tournament_timeslot_id = b.tournament_timeslot_id
+  and a.team_id = b.team_id
+  and a.ctid > b.ctid;
+
+alter table tournamenttimeslot_team_map
+    add constraint pk_tournamenttimeslot_team_map primary key (tournament_timeslot_id, team_id);
+
+-- Counters that drifted from their rows
+update tournament_timeslot ts
+set available_team_count = counted.team_count
+from (
+    select ts2.tournament_timeslot_id, count(tm.team_id) as team_count
+    from tournament_timeslot ts2
+    left join tournamenttimeslot_team_map tm on tm.tournament_timeslot_id = ts2.tournament_timeslot_id
+    group by ts2.tournament_timeslot_id
+) counted
+where counted.tournament_timeslot_id = ts.tournament_timeslot_id
+  and ts.available_team_count <> counted.team_count;
@@ -0,0 +1,40 @@
+-- A grid position of a schedule is materialised at most once (ScheduleService.materialiseTimeslots). Remove the
+-- duplicates concurrent requests may have left, keeping the first timeslot of every position. The team availabilities
+-- of a duplicate move to the kept timeslot. Member indications of a removed timeslot are re-indicated by the members.
+create temporary table duplicate_timeslot as
+select ts.tournament_timeslot_id as duplicate_id, kept.kept_id
+from tournament_timeslot ts
+join (
+    select schedule_id, slot_index, min(tournament_timeslot_id) as kept_id
+    from tournament_timeslot
+    where slot_index is not null
+    group by schedule_id, slot_index
+    having count(*) > 1
+) kept on kept.schedule_id = ts.schedule_id and kept.slot_index = ts.slot_index
+where ts.tournament_timeslot_id <> kept.kept_id;
+
+insert into tournamenttimeslot_team_map (tournament_timeslot_id, team_id)
+select d.kept_id, tm.team_id
+from tournamenttimeslot_team_map tm
+join duplicate_timeslot d on d.duplicate_id = tm.tournament_timeslot_id
+on conflict do nothing;
+
+delete from tournamenttimeslot_team_map
+where tournament_timeslot_id in (select duplicate_id from duplicate_timeslot);
+
+delete from tournament_timeslot
+where tournament_timeslot_id in (select duplicate_id from duplicate_timeslot);
+
+update tournament_timeslot ts
+set available_team_count = (
+    select count(*) from tournamenttimeslot_team_map tm where tm.tournament_timeslot_id = ts.tournament_timeslot_id
+)
+where ts.tournament_timeslot_id in (select kept_id from duplicate_timeslot);
+
+drop table duplicate_timeslot;
+
+alter table tournament_timeslot
+    add constraint uk_tournament_timeslot_schedule_slot_index unique (schedule_id, slot_index);
+
+-- Timeslots of a schedule are looked up by the leading schedule_id of the unique index
+drop index idx_tournament_timeslot_schedule_id;
@@ -0,0 +1,74 @@
+package com.hairlesscat.app;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the hot queries can use the indexes of db/migration/V3__index_hot_queries.sql.
+ * <p>
+ * Needs a local Postgres migrated by Flyway, run with
+ * {@code mvn test -Dquery-plans=true -Dtest=QueryPlanTests -Dspring.datasource.url=jdbc:postgresql://localhost:5432/hairless}.
+ * Sequential scans are disabled while planning, so the result does not depend on the amount of test data.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "query-plans", matches = "true")
+class QueryPlanTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void teamsOfTournamentUseIndex() {
+		assertUsesIndex("SELECT * FROM team WHERE tournament_id = 1", "idx_team_tournament_id");
+	}
+
+	@Test
+	void summaryCountsOfTournamentsUseIndex() {
+		assertUsesIndex("SELECT tournament_id, count(*) FROM team WHERE tournament_id IN (1, 2) GROUP BY tournament_id", "idx_team_tournament_id");
+		assertUsesIndex("SELECT tournament_id, count(*) FROM match WHERE tournament_id IN (1, 2) GROUP BY tournament_id", "idx_match_tournament_id");
+	}
+
+	@Test
+	void teamsOfUserUseIndex() {
+		assertUsesIndex("SELECT team_id FROM team_member WHERE user_id = 'user'", "idx_team_member_user_id_is_leader");
+		assertUsesIndex("SELECT team_id FROM team_member WHERE user_id = 'user' AND is_leader = true", "idx_team_member_user_id_is_leader");
+	}
+
+	@Test
+	void matchesOfTeamWithStatusUseIndex() {
+		assertUsesIndex("SELECT m.* FROM match m JOIN match_participant p ON p.match_id = m.match_id WHERE p.team_id = 1 AND p.status = 0",
+				"idx_match_participant_team_id_status");
+	}
+
+	@Test
+	void timeslotsOfScheduleUseIndex() {
+		assertUsesIndex("SELECT * FROM tournament_timeslot WHERE schedule_id = 1 ORDER BY start_time", "uk_tournament_timeslot_schedule_slot_index");
+	}
+
+	@Test
+	void resultOfMatchUseIndex() {
+		assertUsesIndex("SELECT * FROM result WHERE result_match_id = 1", "idx_result_result_match_id");
+	}
+
+	@Test
+	void tournamentsOfAdminUserUseIndex() {
+		assertUsesIndex("SELECT * FROM tournament WHERE tournament_admin_user_id = 'user'", "idx_tournament_tournament_admin_user_id");
+	}
+
+	private void assertUsesIndex(String query, String indexName) {
+		String plan = transactionTemplate.execute(status -> {
+			jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+			return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class));
+		});
+		assertTrue(plan != null && plan.contains(indexName), "Expected the plan to use " + indexName + ":\n" + plan);
+	}
+}
@@ -0,0 +1,207 @@
+package com.hairlesscat.app.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlgorithmTests {
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+	@Test
+	void pairingsOnlyFreeAtStartsOfDifferentBlockAlignmentsAreScheduled() throws Exception {
+		// With 3 slots per match, A-B can only start at 0, C-D at 4, A-C at 8, A-D at 12, B-C at 16 and B-D at 20.
+		// The starts fall on all three block alignments, so no single alignment schedules every pairing.
+		AvailabilityMatrix matrix = matrix(23,
+				new int[][]{{0, 2}, {8, 10}, {12, 14}},
+				new int[][]{{0, 2}, {16, 18}, {20, 22}},
+				new int[][]{{4, 6}, {8, 10}, {16, 18}},
+				new int[][]{{4, 6}, {12, 14}, {20, 22}});
+
+		RoundRobinSolution solution = Algorithm.solveRR(matrix, null, 3);
+
+		assertTrue(solution.isPerfect());
+		// Pairings (0,1), (0,2), (0,3), (1,2), (1,3), (2,3)
+		assertArrayEquals(new int[]{0, 8, 12, 16, 20, 4}, starts(solution));
+		assertNoOverlap(solution);
+	}
+
+	@Test
+	void twoPairingsWithUnalignedWindowsAreScheduled() {
+		// A-B is only free in slots 0-2, C-D only in slots 4-6
+		AvailabilityMatrix matrix = matrix(7,
+				new int[][]{{0, 2}},
+				new int[][]{{0, 2}},
+				new int[][]{{4, 6}},
+				new int[][]{{4, 6}});
+
+		RoundRobinSolution solution = Algorithm.matchPairingsToTimeslots(matrix, null, 3);
+
+		assertEquals(2, solution.matchingSize());
+		assertEquals(0, solution.timeslotOf(0));
+		assertEquals(4, solution.timeslotOf(5));
+		assertEquals(6, solution.lastTimeslotOf(5));
+	}
+
+	@Test
+	void seededSearchIsReproducibleAndValid() throws Exception {
+		AvailabilityMatrix matrix = matrix(23,
+				new int[][]{{0, 2}, {8, 10}, {12, 14}},
+				new int[][]{{0, 2}, {16, 18}, {20, 22}},
+				new int[][]{{4, 6}, {8, 10}, {16, 18}},
+				new int[][]{{4, 6}, {12, 14}, {20, 22}});
+
+		RoundRobinSolution first = Algorithm.solveRR(matrix, 42L, 3);
+		RoundRobinSolution second = Algorithm.solveRR(matrix, 42L, 3);
+
+		assertTrue(first.isPerfect());
+		assertArrayEquals(starts(first), starts(second));
+		assertNoOverlap(first);
+	}
+
+	@Test
+	void overlappingWindowsCannotAllBeScheduled() {
+		// Every pairing can only play in slots 0-3, which holds one 3 slot match
+		AvailabilityMatrix matrix = matrix(12,
+				new int[][]{{0, 3}},
+				new int[][]{{0, 3}},
+				new int[][]{{0, 3}});
+
+		RoundRobinSolution solution = Algorithm.matchPairingsToTimeslots(matrix, null, 3);
+
+		assertEquals(1, solution.matchingSize());
+		assertFalse(solution.isPerfect());
+	}
+
+	@Test
+	void overlappingMatchedStartsAreMovedToFreeStarts() {
+		// The matching gave A-B start 1 and C-D start 2, which overlap with 3 slots per match. C-D can only start at 2.
+		BitSet abStarts = new BitSet();
+		abStarts.set(0, 7);
+		BitSet cdStarts = new BitSet();
+		cdStarts.set(2);
+
+		int[] starts = new StartSlotAssignment(new BitSet[]{abStarts, cdStarts}, 3).run(new int[]{1, 2});
+
+		assertArrayEquals(new int[]{5, 2}, starts);
+	}
+
+	@Test
+	void aBlockingMatchIsMovedToPlaceAnotherPairing() {
+		// With 2 slots per match, A-B placed at 1 blocks both starts of C-D until A-B moves to 4
+		BitSet abStarts = new BitSet();
+		abStarts.set(1);
+		abStarts.set(4);
+		BitSet cdStarts = new BitSet();
+		cdStarts.set(0);
+		cdStarts.set(2);
+
+		int[] starts = new StartSlotAssignment(new BitSet[]{abStarts, cdStarts}, 2).run(new int[]{1, 2});
+
+		assertArrayEquals(new int[]{4, 0}, starts);
+	}
+
+	@Test
+	void seededAssignmentOfManyPairingsIsValid() {
+		// 10 teams, each free in a few windows of a 2 slot match over 200 slots
+		Random random = new Random(7);
+		int[][][] teamRanges = new int[10][][];
+		for (int i = 0; i < teamRanges.length; i++) {
+			teamRanges[i] = new int[12][];
+			for (int w = 0; w < teamRanges[i].length; w++) {
+				int first = random.nextInt(196);
+				teamRanges[i][w] = new int[]{first, first + 1 + random.nextInt(4)};
+			}
+		}
+		AvailabilityMatrix matrix = matrix(200, teamRanges);
+
+		RoundRobinSolution solution = Algorithm.matchPairingsToTimeslots(matrix, 3L, 2);
+
+		assertTrue(solution.matchingSize() > 0);
+		assertNoOverlap(solution);
+		for (int pairing = 0, i = 0; i < teamRanges.length; i++) {
+			for (int j = i + 1; j < teamRanges.length; j++, pairing++) {
+				int first = solution.timeslotOf(pairing);
+				if (first == RoundRobinSolution.UNSCHEDULED) continue;
+				BitSet both = (BitSet) matrix.availability(i).clone();
+				both.and(matrix.availability(j));
+				assertEquals(2, both.get(first, first + 2).cardinality(), "Pairing " + pairing + " is not free at " + first);
+			}
+		}
+	}
+
+	@Test
+	void matchesDoNotSpanGapsBetweenTimeslots() {
+		LocalDateTime[] startTimes = new LocalDateTime[4];
+		LocalDateTime[] endTimes = new LocalDateTime[4];
+		for (int k = 0; k < 4; k++) {
+			// An hour break between slots 1 and 2
+			startTimes[k] = START.plusMinutes(30L * k + (k >= 2 ? 60 : 0));
+			endTimes[k] = startTimes[k].plusMinutes(30);
+		}
+		BitSet all = new BitSet();
+		all.set(0, 4);
+		AvailabilityMatrix matrix = new AvailabilityMatrix(new long[]{1, 2}, startTimes, endTimes, new BitSet[]{all, all});
+
+		RoundRobinSolution solution = Algorithm.matchPairingsToTimeslots(matrix, null, 3);
+
+		assertEquals(0, solution.matchingSize());
+	}
+
+	@Test
+	void singleSlotMatchesUseTheBipartiteMatching() throws Exception {
+		AvailabilityMatrix matrix = matrix(3,
+				new int[][]{{0, 1}},
+				new int[][]{{1, 2}},
+				new int[][]{{0, 0}, {2, 2}});
+
+		RoundRobinSolution solution = Algorithm.solveRR(matrix, null, 1);
+
+		assertTrue(solution.isPerfect());
+		assertArrayEquals(new int[]{1, 0, 2}, starts(solution));
+	}
+
+	/**
+	 * Contiguous 30 minute timeslots, every team available in the given inclusive ranges of slots.
+	 */
+	private static AvailabilityMatrix matrix(int numTimeslots, int[][]... teamRanges) {
+		LocalDateTime[] startTimes = new LocalDateTime[numTimeslots];
+		LocalDateTime[] endTimes = new LocalDateTime[numTimeslots];
+		for (int k = 0; k < numTimeslots; k++) {
+			startTimes[k] = START.plusMinutes(30L * k);
+			endTimes[k] = startTimes[k].plusMinutes(30);
+		}
+		long[] teamIds = new long[teamRanges.length];
+		BitSet[] availabilities = new BitSet[teamRanges.length];
+		for (int i = 0; i < teamRanges.length; i++) {
+			teamIds[i] = i + 1;
+			availabilities[i] = new BitSet(numTimeslots);
+			for (int[] range : teamRanges[i]) {
+				availabilities[i].set(range[0], range[1] + 1);
+			}
+		}
+		return new AvailabilityMatrix(teamIds, startTimes, endTimes, availabilities);
+	}
+
+	private static int[] starts(RoundRobinSolution solution) {
+		int[] starts = new int[solution.numPairings()];
+		for (int pairing = 0; pairing < starts.length; pairing++) {
+			starts[pairing] = solution.timeslotOf(pairing);
+		}
+		return starts;
+	}
+
+	private static void assertNoOverlap(RoundRobinSolution solution) {
+		BitSet occupied = new BitSet();
+		for (int pairing = 0; pairing < solution.numPairings(); pairing++) {
+			int first = solution.timeslotOf(pairing);
+			int last = solution.lastTimeslotOf(pairing);
+			if (first == RoundRobinSolution.UNSCHEDULED) continue;
+			assertTrue(occupied.get(first, last + 1).isEmpty(), "Match of pairing " + pairing + " overlaps another one");
+			occupied.set(first, last + 1);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.hairlesscat.app.schedule;
+
+import com.hairlesscat.app.match.Match;
+import com.hairlesscat.app.match.MatchRepository;
+import com.hairlesscat.app.team.Team;
+import com.hairlesscat.app.team.TeamRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares writing a generated schedule's matches one by one with the chunked, batched write path.
+ * Needs a database, run with {@code mvn test -Dbenchmark=true -Dtest=MatchWriteBenchmarkTests}.
+ * Everything is rolled back.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MatchWriteBenchmarkTests {
+	private static final Logger log = LoggerFactory.getLogger(MatchWriteBenchmarkTests.class);
+	private static final int NUM_TEAMS = 64;
+
+	@Autowired
+	private ScheduleService scheduleService;
+
+	@Autowired
+	private MatchRepository matchRepository;
+
+	@Autowired
+	private TeamRepository teamRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void chunkedMatchWritesAreFaster() {
+		List<Team> teams = new ArrayList<>();
+		for (int i = 0; i < NUM_TEAMS; i++) {
+			teams.add(teamRepository.save(Team.builder().teamName("benchmark team " + i).build()));
+		}
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+
+		// Warm up the connection pool and the sequences
+		runOneByOne(teams);
+		scheduleService.persistMatches(roundRobin(teams));
+		teams = reload(teams);
+
+		statistics.clear();
+		long oneByOneNanos = runOneByOne(teams);
+		long oneByOneStatements = statistics.getPrepareStatementCount();
+		teams = reload(teams);
+
+		statistics.clear();
+		long start = System.nanoTime();
+		scheduleService.persistMatches(roundRobin(teams));
+		long chunkedNanos = System.nanoTime() - start;
+		long chunkedStatements = statistics.getPrepareStatementCount();
+
+		int numMatches = NUM_TEAMS * (NUM_TEAMS - 1) / 2;
+		log.info("{} matches one by one: {} ms, {} statements", numMatches, oneByOneNanos / 1_000_000, oneByOneStatements);
+		log.info("{} matches chunked: {} ms, {} statements", numMatches, chunkedNanos / 1_000_000, chunkedStatements);
+
+		// Batching sends each chunk of inserts as a handful of statements instead of one per row
+		assertTrue(chunkedStatements * 10 < oneByOneStatements,
+				"Expected at least 10x fewer statements, got " + chunkedStatements + " instead of " + oneByOneStatements);
+	}
+
+	private long runOneByOne(List<Team> teams) {
+		long start = System.nanoTime();
+		for (Match match : roundRobin(teams)) {
+			matchRepository.saveAndFlush(match);
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Empties the persistence context, so both runs start from the same state, and loads the teams again.
+	 */
+	private List<Team> reload(List<Team> teams) {
+		entityManager.flush();
+		entityManager.clear();
+		return teams.stream().map(team -> entityManager.find(Team.class, team.getTeamId())).toList();
+	}
+
+	private static List<Match> roundRobin(List<Team> teams) {
+		List<Match> matches = new ArrayList<>();
+		LocalDateTime time = LocalDateTime.of(2030, 1, 1, 9, 0);
+		for (int i = 0; i < teams.size(); i++) {
+			for (int j = i + 1; j < teams.size(); j++) {
+				matches.add(new Match(List.of(teams.get(i), teams.get(j)), time, time.plusMinutes(30)));
+				time = time.plusMinutes(30);
+			}
+		}
+		return matches;
+	}
+}
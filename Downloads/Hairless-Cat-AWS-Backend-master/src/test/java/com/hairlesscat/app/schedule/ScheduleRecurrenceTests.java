@@ -0,0 +1,65 @@
+package com.hairlesscat.app.schedule;
+
+import com.hairlesscat.app.tournamenttimeslot.TimeslotGrid;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round trip of the recurrence of a schedule through the database, rolled back after every test.
+ */
+@SpringBootTest
+@Transactional
+class ScheduleRecurrenceTests {
+
+	@Autowired
+	private ScheduleRepository scheduleRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void scheduleWithoutRecurrenceIsReloadedWithoutRecurrence() {
+		Schedule reloaded = saveAndReload(schedule(null));
+
+		assertNull(reloaded.getRecurrence());
+		// One continuous window of 7 days and 8 hours
+		assertEquals(352, TimeslotGrid.of(reloaded).size());
+	}
+
+	@Test
+	void recurrenceIsReloaded() {
+		ScheduleRecurrence recurrence = new ScheduleRecurrence(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), LocalTime.of(12, 0), LocalTime.of(13, 0));
+
+		Schedule reloaded = saveAndReload(schedule(recurrence));
+
+		assertEquals(recurrence, reloaded.getRecurrence());
+		// Mondays 7 and 14, Friday 11
+		assertEquals(6, TimeslotGrid.of(reloaded).size());
+	}
+
+	private Schedule saveAndReload(Schedule schedule) {
+		Long scheduleId = scheduleRepository.saveAndFlush(schedule).getScheduleId();
+		entityManager.clear();
+		entityManager.getEntityManagerFactory().getCache().evict(Schedule.class);
+		return scheduleRepository.findById(scheduleId).orElseThrow();
+	}
+
+	private static Schedule schedule(ScheduleRecurrence recurrence) {
+		return Schedule.builder()
+				.tournamentStartTime(LocalDateTime.of(2030, 1, 7, 9, 0))
+				.tournamentEndTime(LocalDateTime.of(2030, 1, 14, 17, 0))
+				.recurrence(recurrence)
+				.virtualTimeslots(true)
+				.build();
+	}
+}
@@ -0,0 +1,65 @@
+package com.hairlesscat.app.schedule;
+
+import com.hairlesscat.app.algorithm.AvailabilityMatrix;
+import com.hairlesscat.app.algorithm.MoreMatchesThanAvailableTimeslotsException;
+import com.hairlesscat.app.algorithm.RoundRobinSolution;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIndexCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleSolutionCacheTests {
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+	// The solution cache does not use the repositories
+	private final ScheduleService scheduleService = new ScheduleService(null, null, null, new TimeslotIndexCache());
+
+	@Test
+	void imperfectSolutionsAreCached() throws Exception {
+		// 3 pairings, only 2 timeslots anyone is free for
+		AvailabilityMatrix matrix = matrix(3, 3, 0, 1);
+
+		RoundRobinSolution solution = scheduleService.solve(1L, 7L, matrix, 1);
+
+		assertFalse(solution.isPerfect());
+		assertSame(solution, scheduleService.solve(1L, 7L, matrix(3, 3, 0, 1), 1));
+		assertNotSame(solution, scheduleService.solve(1L, 8L, matrix, 1));
+	}
+
+	@Test
+	void infeasibleInputsAreCached() {
+		// 6 pairings, 4 timeslots
+		AvailabilityMatrix matrix = matrix(4, 4, 0, 3);
+
+		MoreMatchesThanAvailableTimeslotsException error = assertThrows(MoreMatchesThanAvailableTimeslotsException.class,
+				() -> scheduleService.solve(1L, 7L, matrix, 1));
+
+		assertSame(error, assertThrows(MoreMatchesThanAvailableTimeslotsException.class,
+				() -> scheduleService.solve(1L, 7L, matrix(4, 4, 0, 3), 1)));
+		assertNotSame(error, assertThrows(MoreMatchesThanAvailableTimeslotsException.class,
+				() -> scheduleService.solve(null, 7L, matrix, 1)));
+	}
+
+	/**
+	 * Contiguous 30 minute timeslots, every team available from slot {@code first} to {@code last}.
+	 */
+	private static AvailabilityMatrix matrix(int numTeams, int numTimeslots, int first, int last) {
+		LocalDateTime[] startTimes = new LocalDateTime[numTimeslots];
+		LocalDateTime[] endTimes = new LocalDateTime[numTimeslots];
+		for (int k = 0; k < numTimeslots; k++) {
+			startTimes[k] = START.plusMinutes(30L * k);
+			endTimes[k] = startTimes[k].plusMinutes(30);
+		}
+		long[] teamIds = new long[numTeams];
+		BitSet[] availabilities = new BitSet[numTeams];
+		for (int i = 0; i < numTeams; i++) {
+			teamIds[i] = i + 1;
+			availabilities[i] = new BitSet(numTimeslots);
+			availabilities[i].set(first, last + 1);
+		}
+		return new AvailabilityMatrix(teamIds, startTimes, endTimes, availabilities);
+	}
+}
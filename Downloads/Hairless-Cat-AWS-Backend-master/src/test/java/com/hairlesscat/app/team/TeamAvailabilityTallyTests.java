@@ -0,0 +1,76 @@
+package com.hairlesscat.app.team;
+
+import com.hairlesscat.app.teammember.TeamMember;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIndex;
+import com.hairlesscat.app.tournamenttimeslot.TournamentTimeslot;
+import com.hairlesscat.app.user.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamAvailabilityTallyTests {
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+	private final List<TournamentTimeslot> timeslots = timeslots(10);
+	private final TimeslotIndex index = TimeslotIndex.of(timeslots);
+
+	@Test
+	void countsTheMembersOfEveryTimeslot() {
+		TeamAvailabilityTally tally = TeamAvailabilityTally.of(index, timeslots, List.of(member("a", "1-4"), member("b", "3-6")), 2);
+		tally.setComplete(true);
+
+		assertEquals(List.of(3L, 4L), tally.timeslotIdsAt(tally.available()));
+		assertTrue(tally.isFor(index, Set.of("a", "b"), 2));
+		assertFalse(tally.isFor(index, Set.of("a"), 2));
+		assertFalse(tally.isFor(index, Set.of("a", "b"), 1));
+		assertFalse(tally.isFor(TimeslotIndex.of(timeslots), Set.of("a", "b"), 2));
+	}
+
+	@Test
+	void appliesChangesOfAMember() {
+		TeamAvailabilityTally tally = TeamAvailabilityTally.of(index, timeslots, List.of(member("a", "1-4"), member("b", "3-6")), 2);
+		tally.setComplete(true);
+
+		assertTrue(tally.apply("b", TimeslotIdRanges.decode("1"), TimeslotIdRanges.decode("3")));
+		assertEquals(List.of(1L, 4L), tally.timeslotIdsAt(tally.available()));
+
+		tally.setComplete(false);
+		assertTrue(tally.available().isEmpty());
+	}
+
+	@Test
+	void rejectsChangesThatDoNotFollowTheTally() {
+		TeamAvailabilityTally tally = TeamAvailabilityTally.of(index, timeslots, List.of(member("a", "1-4"), member("b", "3-6")), 2);
+		tally.setComplete(true);
+
+		// Applied already, removing a timeslot the member is not available for, unknown member, unknown timeslot
+		assertFalse(tally.apply("a", TimeslotIdRanges.decode("2"), TimeslotIdRanges.EMPTY));
+		assertFalse(tally.apply("a", TimeslotIdRanges.EMPTY, TimeslotIdRanges.decode("6")));
+		assertFalse(tally.apply("c", TimeslotIdRanges.decode("1"), TimeslotIdRanges.EMPTY));
+		assertFalse(tally.apply("a", TimeslotIdRanges.decode("99"), TimeslotIdRanges.EMPTY));
+		assertEquals(List.of(3L, 4L), tally.timeslotIdsAt(tally.available()));
+	}
+
+	private static TeamMember member(String userId, String ranges) {
+		TeamMember member = new TeamMember(User.builder().userId(userId).build(), null, false);
+		member.setUserIndicatedTimeslotRanges(TimeslotIdRanges.decode(ranges));
+		member.setIndicatedAvailabilities(true);
+		return member;
+	}
+
+	private static List<TournamentTimeslot> timeslots(int count) {
+		List<TournamentTimeslot> timeslots = new ArrayList<>();
+		for (int k = 0; k < count; k++) {
+			TournamentTimeslot timeslot = new TournamentTimeslot(START.plusMinutes(30L * k), START.plusMinutes(30L * (k + 1)));
+			timeslot.setTimeslotId(k + 1L);
+			timeslots.add(timeslot);
+		}
+		return timeslots;
+	}
+}
@@ -0,0 +1,36 @@
+package com.hairlesscat.app.teammember;
+
+import com.hairlesscat.app.tournamenttimeslot.TimeslotIdRanges;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityDeltaTests {
+
+	@Test
+	void addsAndRemovesTimeslots() {
+		AvailabilityDelta delta = new AvailabilityDelta("user", Set.of(12L, 13L), Set.of(3L, 40L));
+
+		assertEquals("1-2,4-5,12-13", delta.applyTo(TimeslotIdRanges.decode("1-5")).encode());
+	}
+
+	@Test
+	void timeslotThatIsAddedAndRemovedEndsUpRemoved() {
+		AvailabilityDelta delta = new AvailabilityDelta("user", Set.of(7L, 8L), Set.of(8L));
+
+		assertEquals("7", delta.applyTo(TimeslotIdRanges.EMPTY).encode());
+	}
+
+	@Test
+	void missingListsAreEmpty() {
+		AvailabilityDelta delta = new AvailabilityDelta("user", null, null);
+
+		assertTrue(delta.isEmpty());
+		assertEquals(Set.of(), delta.getAdd());
+		assertEquals(Set.of(), delta.getRemove());
+		assertEquals(TimeslotIdRanges.decode("1-3"), delta.applyTo(TimeslotIdRanges.decode("1-3")));
+		assertFalse(new AvailabilityDelta("user", null, Set.of(1L)).isEmpty());
+	}
+}
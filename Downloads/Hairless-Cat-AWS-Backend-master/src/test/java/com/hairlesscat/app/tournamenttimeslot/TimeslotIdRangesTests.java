@@ -0,0 +1,92 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeslotIdRangesTests {
+
+	@Test
+	void encodesRangesOfConsecutiveIds() {
+		TimeslotIdRanges ranges = TimeslotIdRanges.fromIds(List.of(20L, 3L, 4L, 5L, 14L, 21L, 3L));
+
+		assertEquals("3-5,14,20-21", ranges.encode());
+		assertEquals(3, ranges.rangeCount());
+		assertEquals(6, ranges.size());
+		assertEquals(List.of(3L, 4L, 5L, 14L, 20L, 21L), ranges.toList());
+	}
+
+	@Test
+	void decodeMergesOverlappingAndAdjacentRanges() {
+		assertEquals("1-10", TimeslotIdRanges.decode("1-4,5-7, 6-10").encode());
+		assertEquals("1-3,5", TimeslotIdRanges.decode("1,2,3,5").encode());
+		assertEquals(TimeslotIdRanges.EMPTY, TimeslotIdRanges.decode(null));
+		assertEquals(TimeslotIdRanges.EMPTY, TimeslotIdRanges.decode(" "));
+		assertEquals(TimeslotIdRanges.EMPTY, TimeslotIdRanges.fromIds(List.of()));
+		assertEquals("", TimeslotIdRanges.EMPTY.encode());
+	}
+
+	@Test
+	void decodeRejectsMalformedRanges() {
+		assertThrows(IllegalArgumentException.class, () -> TimeslotIdRanges.decode("5-3"));
+		assertThrows(IllegalArgumentException.class, () -> TimeslotIdRanges.decode("1-x"));
+		assertThrows(IllegalArgumentException.class, () -> TimeslotIdRanges.decode("1,,2"));
+	}
+
+	@Test
+	void encodedFormRoundTrips() {
+		Random random = new Random(7);
+		for (int round = 0; round < 200; round++) {
+			Set<Long> ids = randomIds(random);
+			TimeslotIdRanges ranges = TimeslotIdRanges.fromIds(ids);
+			TimeslotIdRanges decoded = TimeslotIdRanges.decode(ranges.encode());
+
+			assertEquals(ranges, decoded);
+			assertEquals(ids, decoded.toSet());
+			assertEquals(new ArrayList<>(new TreeSet<>(ids)), decoded.toList());
+		}
+	}
+
+	@Test
+	void setOperationsMatchTheOperationsOnIds() {
+		Random random = new Random(11);
+		for (int round = 0; round < 200; round++) {
+			Set<Long> a = randomIds(random);
+			Set<Long> b = randomIds(random);
+			TimeslotIdRanges rangesA = TimeslotIdRanges.fromIds(a);
+			TimeslotIdRanges rangesB = TimeslotIdRanges.fromIds(b);
+
+			Set<Long> union = new HashSet<>(a);
+			union.addAll(b);
+			Set<Long> intersection = new HashSet<>(a);
+			intersection.retainAll(b);
+			Set<Long> difference = new HashSet<>(a);
+			difference.removeAll(b);
+
+			assertEquals(TimeslotIdRanges.fromIds(union), rangesA.union(rangesB));
+			assertEquals(TimeslotIdRanges.fromIds(intersection), rangesA.intersection(rangesB));
+			assertEquals(TimeslotIdRanges.fromIds(difference), rangesA.difference(rangesB));
+			for (long id = 0; id < 70; id++) {
+				assertEquals(a.contains(id), rangesA.contains(id), "contains(" + id + ") of " + rangesA);
+			}
+		}
+	}
+
+	/**
+	 * Ids below 64, in runs so that ranges overlap, touch and nest.
+	 */
+	private static Set<Long> randomIds(Random random) {
+		Set<Long> ids = new HashSet<>();
+		int numRuns = random.nextInt(5);
+		for (int run = 0; run < numRuns; run++) {
+			long first = random.nextInt(60);
+			long last = first + random.nextInt(6);
+			for (long id = first; id <= last; id++) {
+				ids.add(id);
+			}
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,92 @@
+package com.hairlesscat.app.tournamenttimeslot;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeslotIndexTests {
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+	@Test
+	void resolvesIdsToTheirPositions() {
+		List<TournamentTimeslot> timeslots = timeslots(30L, 10L, null, 20L);
+		TimeslotIndex index = TimeslotIndex.of(timeslots);
+
+		assertEquals(3, index.size());
+		assertEquals(0, index.positionOf(30L));
+		assertEquals(1, index.positionOf(10L));
+		assertEquals(3, index.positionOf(20L));
+		assertEquals(-1, index.positionOf(40L));
+		assertEquals(-1, index.positionOf(null));
+		assertTrue(index.containsAll(List.of(10L, 20L)));
+		assertFalse(index.containsAll(List.of(10L, 40L)));
+		assertEquals(List.of(timeslots.get(3), timeslots.get(0)), index.getAll(timeslots, List.of(20L, 30L)));
+	}
+
+	@Test
+	void isInvalidForReorderedTimeslotsOfTheSameSize() {
+		List<TournamentTimeslot> timeslots = timeslots(1L, 2L, 3L);
+		TimeslotIndex index = TimeslotIndex.of(timeslots);
+		assertTrue(index.isValidFor(timeslots));
+
+		// Same start time, e.g. a reload that broke the tie the other way
+		List<TournamentTimeslot> reordered = new ArrayList<>(List.of(timeslots.get(1), timeslots.get(0), timeslots.get(2)));
+		assertFalse(index.isValidFor(reordered));
+
+		List<TournamentTimeslot> replaced = timeslots(1L, 2L, 4L);
+		assertFalse(index.isValidFor(replaced));
+
+		List<TournamentTimeslot> persisted = timeslots(1L, 2L, null);
+		assertFalse(TimeslotIndex.of(persisted).isValidFor(timeslots));
+	}
+
+	@Test
+	void isNotCurrentForTimeslotListsThatChangedSize() {
+		List<TournamentTimeslot> timeslots = timeslots(1L, 2L, 3L);
+		TimeslotIndex index = TimeslotIndex.of(timeslots);
+		assertTrue(index.isComplete());
+		assertTrue(index.isCurrentFor(timeslots(1L, 2L, 3L)));
+
+		assertFalse(index.isCurrentFor(timeslots(1L, 2L, 5L, 3L)));
+		assertFalse(index.isCurrentFor(timeslots(1L, 2L)));
+		assertFalse(index.isCurrentFor(timeslots(4L, 2L, 3L)));
+		assertFalse(TimeslotIndex.of(timeslots(1L, null, 3L)).isComplete());
+		assertTrue(TimeslotIndex.of(List.of()).isCurrentFor(List.of()));
+	}
+
+	@Test
+	void getAllRebuildsAnOutOfDateIndex() {
+		List<TournamentTimeslot> timeslots = timeslots(1L, 2L, 3L);
+		TimeslotIndex index = TimeslotIndex.of(timeslots);
+
+		List<TournamentTimeslot> reordered = new ArrayList<>(List.of(timeslots.get(2), timeslots.get(1), timeslots.get(0), timeslot(4L)));
+		assertEquals(List.of(reordered.get(0), reordered.get(3)), index.getAll(reordered, List.of(3L, 4L)));
+	}
+
+	@Test
+	void getAllRejectsIdsOfOtherSchedules() {
+		List<TournamentTimeslot> timeslots = timeslots(1L, 2L);
+		TimeslotIndex index = TimeslotIndex.of(timeslots);
+
+		assertThrows(IllegalArgumentException.class, () -> index.getAll(timeslots, List.of(1L, 5L)));
+		assertThrows(IllegalArgumentException.class, () -> index.getAll(timeslots(2L, 1L), List.of(5L)));
+	}
+
+	private static List<TournamentTimeslot> timeslots(Long... timeslotIds) {
+		List<TournamentTimeslot> timeslots = new ArrayList<>();
+		for (Long timeslotId : timeslotIds) {
+			timeslots.add(timeslot(timeslotId));
+		}
+		return timeslots;
+	}
+
+	private static TournamentTimeslot timeslot(Long timeslotId) {
+		TournamentTimeslot timeslot = new TournamentTimeslot(START, START.plusMinutes(30));
+		timeslot.setTimeslotId(timeslotId);
+		return timeslot;
+	}
+}
@@ -0,0 +1,100 @@
+package com.hairlesscat.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitSlicedCounterTests {
+
+	@Test
+	void thresholdsMatchCountsOfANaiveLoop() {
+		Random random = new Random(3);
+		for (int round = 0; round < 50; round++) {
+			// Sizes that do and do not fill the last word
+			int size = 1 + random.nextInt(200);
+			int numBitsets = random.nextInt(20);
+			BitSlicedCounter counter = new BitSlicedCounter(size, numBitsets);
+			int[] counts = new int[size];
+
+			for (int n = 0; n < numBitsets; n++) {
+				BitSet bits = new BitSet(size);
+				for (int position = 0; position < size; position++) {
+					if (random.nextInt(3) > 0) {
+						bits.set(position);
+						counts[position]++;
+					}
+				}
+				counter.add(bits);
+			}
+
+			for (int threshold = 0; threshold <= numBitsets + 1; threshold++) {
+				BitSet expected = new BitSet(size);
+				for (int position = 0; position < size; position++) {
+					if (counts[position] >= threshold) expected.set(position);
+				}
+				assertEquals(expected, counter.atLeast(threshold), "size " + size + ", threshold " + threshold);
+			}
+		}
+	}
+
+	@Test
+	void countsUpToTheMaximumCount() {
+		BitSlicedCounter counter = new BitSlicedCounter(70, 8);
+		BitSet bits = new BitSet();
+		bits.set(3);
+		bits.set(69);
+		for (int n = 0; n < 8; n++) {
+			counter.add(bits);
+		}
+
+		assertEquals(bits, counter.atLeast(8));
+		assertTrue(counter.atLeast(9).isEmpty());
+	}
+
+	@Test
+	void removedBitsetsAreTakenBack() {
+		Random random = new Random(5);
+		int size = 130;
+		BitSlicedCounter counter = new BitSlicedCounter(size, 6);
+		int[] counts = new int[size];
+		BitSet[] added = new BitSet[6];
+
+		for (int n = 0; n < added.length; n++) {
+			added[n] = new BitSet(size);
+			for (int position = 0; position < size; position++) {
+				if (random.nextBoolean()) {
+					added[n].set(position);
+					counts[position]++;
+				}
+			}
+			counter.add(added[n]);
+		}
+		for (int n = 0; n < added.length; n += 2) {
+			counter.remove(added[n]);
+			added[n].stream().forEach(position -> counts[position]--);
+		}
+
+		for (int threshold = 1; threshold <= 4; threshold++) {
+			BitSet expected = new BitSet(size);
+			for (int position = 0; position < size; position++) {
+				if (counts[position] >= threshold) expected.set(position);
+			}
+			assertEquals(expected, counter.atLeast(threshold), "threshold " + threshold);
+		}
+	}
+
+	@Test
+	void rejectsCountsItCannotHold() {
+		BitSet bits = new BitSet();
+		bits.set(2);
+		BitSlicedCounter full = new BitSlicedCounter(10, 1);
+		full.add(bits);
+		full.add(new BitSet());
+
+		assertThrows(IllegalStateException.class, () -> full.add(bits));
+		assertThrows(IllegalStateException.class, () -> new BitSlicedCounter(10, 1).remove(bits));
+	}
+}